@@ -0,0 +1,71 @@
+package com.jamcast.api.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a shared store, for tests and single-node runs.
+ * Replicas only share it if they share the instance, such as several
+ * services wired to one store in a test.
+ */
+public class InMemoryRemoteCacheStore implements RemoteCacheStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Sinks.Many<String> messages = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<byte[]> get(String key) {
+        return Mono.fromSupplier(() -> {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired()) {
+                entries.remove(key, entry);
+                return null;
+            }
+            return entry.value();
+        });
+    }
+
+    @Override
+    public Mono<Void> set(String key, byte[] value, Duration ttl) {
+        return Mono.fromRunnable(() -> entries.put(key, Entry.of(value, ttl)));
+    }
+
+    @Override
+    public Mono<Boolean> setIfAbsent(String key, byte[] value, Duration ttl) {
+        return Mono.fromSupplier(() -> {
+            Entry created = Entry.of(value, ttl);
+            Entry current = entries.compute(key,
+                    (k, existing) -> existing == null || existing.isExpired() ? created : existing);
+            return current == created;
+        });
+    }
+
+    @Override
+    public Mono<Void> publish(String message) {
+        return Mono.fromRunnable(() -> messages.tryEmitNext(message));
+    }
+
+    @Override
+    public Flux<String> messages() {
+        return messages.asFlux();
+    }
+
+    private record Entry(byte[] value, long expiresAt) {
+
+        static Entry of(byte[] value, Duration ttl) {
+            return new Entry(value, System.nanoTime() + ttl.toNanos());
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
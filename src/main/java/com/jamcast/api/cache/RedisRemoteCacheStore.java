@@ -0,0 +1,99 @@
+package com.jamcast.api.cache;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Shared store backed by Redis through Lettuce. Values live under plain keys
+ * with a PX expiry; messages travel over one pub/sub channel. Connections are
+ * opened on first use rather than at startup, so a replica starts and serves
+ * from its local caches while Redis is unreachable. A failed connection
+ * attempt fails every call for {@link #RECONNECT_BACKOFF} before the next
+ * attempt; once connected, Lettuce reconnects on its own, so a Redis outage
+ * surfaces as failed calls rather than a broken store.
+ */
+public class RedisRemoteCacheStore implements RemoteCacheStore, AutoCloseable {
+
+    static final Duration RECONNECT_BACKOFF = Duration.ofSeconds(5);
+
+    private final RedisClient client;
+    private final Mono<StatefulRedisConnection<String, byte[]>> connection;
+    private final String channel;
+    private final Flux<String> messages;
+
+    public RedisRemoteCacheStore(String redisUri, String channel) {
+        RedisURI uri = RedisURI.create(redisUri);
+        this.client = RedisClient.create();
+        this.channel = channel;
+        this.connection = connectOnce(Mono.fromCompletionStage(() ->
+                client.connectAsync(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE), uri)));
+        Mono<StatefulRedisPubSubConnection<String, String>> pubSubConnection = connectOnce(
+                Mono.fromCompletionStage(() -> client.connectPubSubAsync(StringCodec.UTF8, uri)));
+        // Lettuce resubscribes after a reconnect
+        this.messages = pubSubConnection
+                .flatMapMany(pubSub -> pubSub.reactive().subscribe(channel)
+                        .thenMany(pubSub.reactive().observeChannels()))
+                .filter(message -> channel.equals(message.getChannel()))
+                .map(message -> message.getMessage())
+                .share();
+    }
+
+    @Override
+    public Mono<byte[]> get(String key) {
+        return connection.flatMap(c -> c.reactive().get(key));
+    }
+
+    @Override
+    public Mono<Void> set(String key, byte[] value, Duration ttl) {
+        return connection.flatMap(c -> c.reactive().set(key, value, SetArgs.Builder.px(ttl.toMillis()))).then();
+    }
+
+    @Override
+    public Mono<Boolean> setIfAbsent(String key, byte[] value, Duration ttl) {
+        return connection.flatMap(c -> c.reactive().set(key, value, SetArgs.Builder.nx().px(ttl.toMillis())))
+                .map("OK"::equals)
+                .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Void> publish(String message) {
+        return connection.flatMap(c -> c.reactive().publish(channel, message.getBytes(StandardCharsets.UTF_8)))
+                .then();
+    }
+
+    @Override
+    public Flux<String> messages() {
+        return messages;
+    }
+
+    /**
+     * Closes the connections opened so far along with the client.
+     */
+    @Override
+    public void close() {
+        client.shutdown();
+    }
+
+    /**
+     * Shares one connection attempt between all callers and keeps the
+     * connection once it is established. A failed attempt is remembered for
+     * {@link #RECONNECT_BACKOFF}, so callers fail fast instead of each waiting
+     * on an unreachable Redis.
+     */
+    private static <C> Mono<C> connectOnce(Mono<C> connect) {
+        return connect.cache(connected -> Duration.ofMillis(Long.MAX_VALUE),
+                error -> RECONNECT_BACKOFF,
+                () -> Duration.ZERO);
+    }
+}
@@ -0,0 +1,59 @@
+package com.jamcast.api.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Key-value store shared by all JamCast replicas, with a broadcast channel
+ * for cache invalidation messages. Implementations must be safe for
+ * concurrent use; {@link SharedCache} adds serialization, namespacing,
+ * timeouts and error handling on top.
+ */
+public interface RemoteCacheStore {
+
+    /**
+     * Reads a value.
+     *
+     * @param key The full key
+     * @return The stored bytes, or empty if absent or expired
+     */
+    Mono<byte[]> get(String key);
+
+    /**
+     * Stores a value, replacing any previous one.
+     *
+     * @param key The full key
+     * @param value The bytes to store
+     * @param ttl How long the value lives
+     * @return Completion signal
+     */
+    Mono<Void> set(String key, byte[] value, Duration ttl);
+
+    /**
+     * Stores a value only if the key is absent, atomically across replicas.
+     *
+     * @param key The full key
+     * @param value The bytes to store
+     * @param ttl How long the value lives
+     * @return True if the value was stored
+     */
+    Mono<Boolean> setIfAbsent(String key, byte[] value, Duration ttl);
+
+    /**
+     * Broadcasts a message to every replica subscribed to {@link #messages()},
+     * including the sender.
+     *
+     * @param message The message
+     * @return Completion signal
+     */
+    Mono<Void> publish(String message);
+
+    /**
+     * Returns the messages broadcast by any replica.
+     *
+     * @return Hot stream of messages
+     */
+    Flux<String> messages();
+}
@@ -0,0 +1,249 @@
+package com.jamcast.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.config.ApiConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Second cache level shared by all replicas, in front of the upstream APIs and
+ * behind each replica's local Caffeine caches. Values are stored as JSON under
+ * {@code <key-prefix>:<namespace>:<key>}, prefixed with the time they expire at,
+ * so a replica reading a value can keep it locally for its remaining lifetime
+ * only. Whenever a replica stores a value, it broadcasts the key so the other
+ * replicas can replace their local copy. The shared store is an optimization only: it is
+ * bounded by {@code api.shared-cache.timeout}, and its failures count as misses.
+ * With {@code api.shared-cache.type=none} every operation is a no-op miss.
+ */
+@Component
+public class SharedCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedCache.class);
+
+    public static final String REQUESTS_COUNTER = "jamcast.shared.cache.requests";
+    public static final String INVALIDATIONS_COUNTER = "jamcast.shared.cache.invalidations";
+
+    private final RemoteCacheStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ApiConfig.SharedCache sharedCacheConfig;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> updateListeners = new ConcurrentHashMap<>();
+    private Disposable messageSubscription;
+
+    @Autowired
+    public SharedCache(Optional<RemoteCacheStore> store, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       ApiConfig apiConfig) {
+        this.store = store.orElse(null);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.sharedCacheConfig = apiConfig.getSharedCache();
+        if (this.store == null && !"none".equalsIgnoreCase(sharedCacheConfig.getType())) {
+            throw new IllegalStateException("Unknown api.shared-cache.type: " + sharedCacheConfig.getType()
+                    + " (expected none, in-memory or redis)");
+        }
+    }
+
+    /**
+     * Starts listening for updates broadcast by other replicas.
+     */
+    @PostConstruct
+    public void start() {
+        if (store == null) {
+            return;
+        }
+        messageSubscription = store.messages()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::onMessage);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (messageSubscription != null) {
+            messageSubscription.dispose();
+        }
+    }
+
+    /**
+     * Returns whether a shared store is configured.
+     *
+     * @return False if every operation is a no-op
+     */
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Reads a value from the shared store.
+     *
+     * @param namespace The cache the key belongs to, such as {@code weather}
+     * @param key The key within the namespace
+     * @param type The value type
+     * @return The value and its remaining lifetime, or empty on a miss, a
+     *         timeout or a store failure
+     */
+    public <V> Mono<Entry<V>> get(String namespace, String key, Class<V> type) {
+        if (store == null) {
+            return Mono.empty();
+        }
+        return store.get(storeKey(namespace, key))
+                .timeout(sharedCacheConfig.getTimeout())
+                .mapNotNull(bytes -> deserialize(bytes, type))
+                .doOnNext(value -> count(namespace, "hit"))
+                .switchIfEmpty(Mono.fromRunnable(() -> count(namespace, "miss")))
+                .onErrorResume(error -> {
+                    count(namespace, "error");
+                    logger.debug("Shared cache read of {}:{} failed: {}", namespace, key, error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Stores a value in the shared store and tells the other replicas it changed.
+     * Runs in the background; failures are logged and ignored.
+     *
+     * @param namespace The cache the key belongs to
+     * @param key The key within the namespace
+     * @param value The value to share
+     * @param ttl How long the shared value lives
+     */
+    public void put(String namespace, String key, Object value, Duration ttl) {
+        if (store == null) {
+            return;
+        }
+        Mono.fromCallable(() -> serialize(value, ttl))
+                .flatMap(bytes -> store.set(storeKey(namespace, key), bytes, ttl))
+                .then(Mono.defer(() -> store.publish(instanceId + ' ' + namespace + ' ' + key)))
+                .timeout(sharedCacheConfig.getTimeout())
+                .subscribe(null, error -> {
+                    count(namespace, "error");
+                    logger.debug("Shared cache write of {}:{} failed: {}", namespace, key, error.toString());
+                });
+    }
+
+    /**
+     * Claims a named lease shared by all replicas, so periodic work runs on one
+     * replica per period. If the store cannot be reached the lease is granted,
+     * as doing the work twice is better than not doing it.
+     *
+     * @param name The lease name
+     * @param ttl How long the lease is held
+     * @return True if this replica holds the lease
+     */
+    public Mono<Boolean> tryLease(String name, Duration ttl) {
+        if (store == null) {
+            return Mono.just(true);
+        }
+        return store.setIfAbsent(storeKey("lease", name), instanceId.getBytes(StandardCharsets.UTF_8), ttl)
+                .timeout(sharedCacheConfig.getTimeout())
+                .onErrorResume(error -> {
+                    logger.warn("Shared cache lease {} unavailable, proceeding locally: {}", name, error.toString());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Registers a listener for keys of a namespace that other replicas stored.
+     * The listener runs on the thread delivering the message and should read
+     * the new value through {@link #get(String, String, Class)} rather than block.
+     *
+     * @param namespace The cache the keys belong to
+     * @param listener Receives each updated key
+     */
+    public void onUpdate(String namespace, Consumer<String> listener) {
+        updateListeners.computeIfAbsent(namespace, ns -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Dispatches an update message of the form {@code <instance> <namespace> <key>}.
+     * Messages sent by this replica are ignored.
+     */
+    private void onMessage(String message) {
+        String[] parts = message.split(" ", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        List<Consumer<String>> listeners = updateListeners.get(parts[1]);
+        if (listeners == null) {
+            return;
+        }
+        meterRegistry.counter(INVALIDATIONS_COUNTER, "namespace", parts[1]).increment();
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(parts[2]);
+            } catch (RuntimeException e) {
+                logger.warn("Update listener for {} failed: {}", parts[1], e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Encodes a value as its expiry time in epoch milliseconds, followed by its JSON.
+     * Replicas compare the expiry time against their own clock, so clock skew
+     * between replicas shortens or lengthens the remaining lifetime they see.
+     */
+    private byte[] serialize(Object value, Duration ttl) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(value);
+        return ByteBuffer.allocate(Long.BYTES + json.length)
+                .putLong(System.currentTimeMillis() + ttl.toMillis())
+                .put(json)
+                .array();
+    }
+
+    /**
+     * Decodes a value written by {@link #serialize(Object, Duration)}.
+     *
+     * @return The entry, or null if it has already expired
+     */
+    private <V> Entry<V> deserialize(byte[] bytes, Class<V> type) {
+        if (bytes.length < Long.BYTES) {
+            throw new IllegalStateException("Unreadable shared cache entry of " + bytes.length + " bytes");
+        }
+        long expiresIn = ByteBuffer.wrap(bytes).getLong() - System.currentTimeMillis();
+        if (expiresIn <= 0) {
+            return null;
+        }
+        try {
+            V value = objectMapper.readValue(bytes, Long.BYTES, bytes.length - Long.BYTES, type);
+            return new Entry<>(value, Duration.ofMillis(expiresIn));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable shared cache entry: " + e.getMessage(), e);
+        }
+    }
+
+    private String storeKey(String namespace, String key) {
+        return sharedCacheConfig.getKeyPrefix() + ':' + namespace + ':' + key;
+    }
+
+    private void count(String namespace, String result) {
+        meterRegistry.counter(REQUESTS_COUNTER, "namespace", namespace, "result", result).increment();
+    }
+
+    /**
+     * A value read from the shared store.
+     *
+     * @param value The value
+     * @param expiresIn How much longer the value lives in the shared store
+     */
+    public record Entry<V>(V value, Duration expiresIn) {}
+}
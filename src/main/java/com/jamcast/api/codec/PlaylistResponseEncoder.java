@@ -0,0 +1,315 @@
+package com.jamcast.api.codec;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JSON encoder dedicated to {@link PlaylistResponse}.
+ * Instead of going through Jackson's bean serializers, a playlist is assembled
+ * from byte fragments: constant field names, quoted header strings, and one
+ * pre-encoded fragment per track. Track fragments are cached per track
+ * instance; the Spotify service converts each Spotify track to a single
+ * instance, so a track is encoded once however many playlists it appears in,
+ * whether they come from cached recommendations or catalog samples. The
+ * exact output size is known before writing, so each playlist is written into
+ * a single buffer of the right size, pooled when the factory pools.
+ * The output is byte for byte what the default Jackson encoder produces.
+ */
+public class PlaylistResponseEncoder extends AbstractEncoder<PlaylistResponse>
+        implements HttpMessageEncoder<PlaylistResponse> {
+
+    private static final byte[] PLAYLIST_TITLE = ascii("{\"playlistTitle\":");
+    private static final byte[] WEATHER_CONDITION = ascii(",\"weatherCondition\":");
+    private static final byte[] MOOD = ascii(",\"mood\":");
+    private static final byte[] TRACKS = ascii(",\"tracks\":");
+    private static final byte[] CITY = ascii(",\"city\":");
+    private static final byte[] TRACK_NAME = ascii("{\"name\":");
+    private static final byte[] TRACK_ARTIST = ascii(",\"artist\":");
+    private static final byte[] TRACK_SPOTIFY_URL = ascii(",\"spotifyUrl\":");
+    private static final byte[] TRACK_ALBUM_NAME = ascii(",\"albumName\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] START_ARRAY = ascii("[");
+    private static final byte[] COMMA = ascii(",");
+    private static final byte[] END_ARRAY = ascii("]");
+    private static final byte[] END_OBJECT = ascii("}");
+    private static final byte[] NEWLINE = ascii("\n");
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    /**
+     * The most track fragments kept; enough for every track in a full catalog.
+     */
+    private static final long MAX_TRACK_FRAGMENTS = 50_000;
+
+    private final PipelineMetrics pipelineMetrics;
+    private final Cache<PlaylistTrack, byte[]> trackFragments;
+
+    public PlaylistResponseEncoder(@Nullable PipelineMetrics pipelineMetrics) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+        this.pipelineMetrics = pipelineMetrics;
+        // Weak keys compare by identity and drop fragments once no playlist or conversion holds the track
+        this.trackFragments = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(MAX_TRACK_FRAGMENTS)
+                .build();
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return PlaylistResponse.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of(MediaType.APPLICATION_NDJSON);
+    }
+
+    /**
+     * Encodes a single playlist as one buffer, a stream of playlists as a JSON
+     * array, or as newline-delimited JSON for {@code application/x-ndjson}.
+     */
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends PlaylistResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, @Nullable MimeType mimeType,
+                                   @Nullable Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            return Flux.from(inputStream).map(value -> timedWrite(value, bufferFactory, EMPTY, NEWLINE));
+        }
+        return Flux.defer(() -> {
+            AtomicBoolean first = new AtomicBoolean(true);
+            return Flux.concat(
+                    Mono.fromCallable(() -> bufferFactory.wrap(START_ARRAY)),
+                    Flux.from(inputStream).map(value -> timedWrite(value, bufferFactory,
+                            first.getAndSet(false) ? EMPTY : COMMA, EMPTY)),
+                    Mono.fromCallable(() -> bufferFactory.wrap(END_ARRAY)));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(PlaylistResponse value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, @Nullable MimeType mimeType,
+                                  @Nullable Map<String, Object> hints) {
+        return timedWrite(value, bufferFactory, EMPTY, EMPTY);
+    }
+
+    /**
+     * Encodes a playlist into a byte array of exactly its JSON length.
+     *
+     * @param response The playlist to encode
+     * @return The JSON bytes
+     */
+    public byte[] encodeToBytes(PlaylistResponse response) {
+        return concat(parts(response));
+    }
+
+    /**
+     * Returns the number of track fragments currently cached.
+     *
+     * @return Approximate track fragment cache size
+     */
+    public long getTrackFragmentCount() {
+        return trackFragments.estimatedSize();
+    }
+
+    private DataBuffer timedWrite(PlaylistResponse response, DataBufferFactory bufferFactory,
+                                  byte[] prefix, byte[] suffix) {
+        if (pipelineMetrics == null) {
+            return write(response, bufferFactory, prefix, suffix);
+        }
+        return pipelineMetrics.timeStage(PipelineMetrics.SERIALIZATION,
+                () -> write(response, bufferFactory, prefix, suffix));
+    }
+
+    private DataBuffer write(PlaylistResponse response, DataBufferFactory bufferFactory,
+                             byte[] prefix, byte[] suffix) {
+        byte[][] parts = parts(response);
+        DataBuffer buffer = bufferFactory.allocateBuffer(prefix.length + length(parts) + suffix.length);
+        try {
+            buffer.write(prefix);
+            for (byte[] part : parts) {
+                buffer.write(part);
+            }
+            buffer.write(suffix);
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a playlist into the byte fragments of its JSON, in output order.
+     */
+    private byte[][] parts(PlaylistResponse response) {
+        List<PlaylistTrack> tracks = response.getTracks();
+        int trackCount = tracks == null ? 0 : tracks.size();
+        int trackParts = tracks == null ? 1 : trackCount == 0 ? 2 : trackCount * 2 + 1;
+        byte[][] parts = new byte[10 + trackParts][];
+        int i = 0;
+        parts[i++] = PLAYLIST_TITLE;
+        parts[i++] = quote(response.getPlaylistTitle());
+        parts[i++] = WEATHER_CONDITION;
+        parts[i++] = quote(response.getWeatherCondition());
+        parts[i++] = MOOD;
+        parts[i++] = quote(response.getMood());
+        parts[i++] = TRACKS;
+        if (tracks == null) {
+            parts[i++] = NULL;
+        } else {
+            parts[i++] = START_ARRAY;
+            for (int t = 0; t < trackCount; t++) {
+                if (t > 0) {
+                    parts[i++] = COMMA;
+                }
+                parts[i++] = trackFragment(tracks.get(t));
+            }
+            parts[i++] = END_ARRAY;
+        }
+        parts[i++] = CITY;
+        parts[i++] = quote(response.getCity());
+        parts[i++] = END_OBJECT;
+        return parts;
+    }
+
+    private byte[] trackFragment(PlaylistTrack track) {
+        if (track == null) {
+            return NULL;
+        }
+        return trackFragments.get(track, PlaylistResponseEncoder::encodeTrack);
+    }
+
+    /**
+     * Encodes the JSON around a playlist's tracks: everything up to and
+     * including the opening bracket of the track array, and everything from its
+     * closing bracket on. The head, followed by the track fragments joined by
+     * commas, followed by the tail, is what {@link #encodeToBytes} returns.
+     *
+     * @param response The playlist, with a non-null track list
+     * @return The head and the tail, in that order
+     */
+    public static byte[][] encodeFrame(PlaylistResponse response) {
+        byte[][] head = {
+                PLAYLIST_TITLE, quote(response.getPlaylistTitle()),
+                WEATHER_CONDITION, quote(response.getWeatherCondition()),
+                MOOD, quote(response.getMood()),
+                TRACKS, START_ARRAY
+        };
+        byte[][] tail = {END_ARRAY, CITY, quote(response.getCity()), END_OBJECT};
+        return new byte[][] {concat(head), concat(tail)};
+    }
+
+    /**
+     * Encodes a single non-null track as the JSON object written within a playlist.
+     *
+     * @param track The track to encode
+     * @return The JSON bytes
+     */
+    public static byte[] encodeTrack(PlaylistTrack track) {
+        byte[][] parts = {
+                TRACK_NAME, quote(track.getName()),
+                TRACK_ARTIST, quote(track.getArtist()),
+                TRACK_SPOTIFY_URL, quote(track.getSpotifyUrl()),
+                TRACK_ALBUM_NAME, quote(track.getAlbumName()),
+                END_OBJECT
+        };
+        return concat(parts);
+    }
+
+    /**
+     * Encodes a string as a quoted, escaped JSON string, or {@code null}.
+     */
+    private static byte[] quote(@Nullable String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] escaped = escapeSurrogates(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    /**
+     * Escapes a string as UTF-8 JSON the way Jackson's UTF-8 generator does:
+     * characters outside the Basic Multilingual Plane are not written as
+     * four-byte UTF-8, but as one six-character hex escape per surrogate.
+     */
+    private static byte[] escapeSurrogates(String value) {
+        JsonStringEncoder jsonStringEncoder = JsonStringEncoder.getInstance();
+        int surrogate = firstSurrogate(value, 0);
+        if (surrogate < 0) {
+            return jsonStringEncoder.quoteAsUTF8(value);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length() + 16);
+        int start = 0;
+        while (surrogate >= 0) {
+            out.writeBytes(jsonStringEncoder.quoteAsUTF8(value.substring(start, surrogate)));
+            char c = value.charAt(surrogate);
+            out.writeBytes(new byte[] {'\\', 'u',
+                    HEX[c >> 12], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF]});
+            start = surrogate + 1;
+            surrogate = firstSurrogate(value, start);
+        }
+        out.writeBytes(jsonStringEncoder.quoteAsUTF8(value.substring(start)));
+        return out.toByteArray();
+    }
+
+    private static int firstSurrogate(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (Character.isSurrogate(value.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] concat(byte[][] parts) {
+        byte[] joined = new byte[length(parts)];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+
+    private static int length(byte[][] parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        return length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
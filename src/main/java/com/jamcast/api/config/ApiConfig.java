@@ -3,6 +3,10 @@ package com.jamcast.api.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration class for API endpoints and keys.
  * Maps properties from application.yml to Java objects.
@@ -13,6 +17,12 @@ public class ApiConfig {
 
     private OpenWeatherMap openweathermap;
     private Spotify spotify;
+    private Batch batch = new Batch();
+    private Warmup warmup = new Warmup();
+    private SharedCache sharedCache = new SharedCache();
+    private Snapshot snapshot = new Snapshot();
+    private Admission admission = new Admission();
+    private ClientRateLimit clientRateLimit = new ClientRateLimit();
 
     // Default constructor
     public ApiConfig() {}
@@ -34,12 +44,66 @@ public class ApiConfig {
         this.spotify = spotify;
     }
 
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public SharedCache getSharedCache() {
+        return sharedCache;
+    }
+
+    public void setSharedCache(SharedCache sharedCache) {
+        this.sharedCache = sharedCache;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public ClientRateLimit getClientRateLimit() {
+        return clientRateLimit;
+    }
+
+    public void setClientRateLimit(ClientRateLimit clientRateLimit) {
+        this.clientRateLimit = clientRateLimit;
+    }
+
     /**
      * Inner class for OpenWeatherMap configuration
      */
     public static class OpenWeatherMap {
         private String baseUrl;
         private String apiKey;
+        private int geohashPrecision = 5;
+        private String groupUrl;
+        private int groupSize = 20;
+        private Cache cache = new Cache(Duration.ofMinutes(10), 10_000, null, Duration.ofHours(2));
+        private Http http = new Http(100, false);
+        private Resilience resilience = new Resilience(50);
 
         // Default constructor
         public OpenWeatherMap() {}
@@ -60,6 +124,54 @@ public class ApiConfig {
         public void setApiKey(String apiKey) {
             this.apiKey = apiKey;
         }
+
+        public int getGeohashPrecision() {
+            return geohashPrecision;
+        }
+
+        public void setGeohashPrecision(int geohashPrecision) {
+            this.geohashPrecision = geohashPrecision;
+        }
+
+        public String getGroupUrl() {
+            return groupUrl;
+        }
+
+        public void setGroupUrl(String groupUrl) {
+            this.groupUrl = groupUrl;
+        }
+
+        public int getGroupSize() {
+            return groupSize;
+        }
+
+        public void setGroupSize(int groupSize) {
+            this.groupSize = groupSize;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public Http getHttp() {
+            return http;
+        }
+
+        public void setHttp(Http http) {
+            this.http = http;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+
+        public void setResilience(Resilience resilience) {
+            this.resilience = resilience;
+        }
     }
 
     /**
@@ -68,6 +180,15 @@ public class ApiConfig {
     public static class Spotify {
         private String baseUrl;
         private String accessToken;
+        private String clientId;
+        private String clientSecret;
+        private String tokenUrl = "https://accounts.spotify.com/api/token";
+        private Duration tokenRefreshSkew = Duration.ofMinutes(5);
+        private Duration tokenRetryInterval = Duration.ofSeconds(10);
+        private Cache cache = new Cache(Duration.ofHours(1), 100, Duration.ofMinutes(10), Duration.ofHours(24));
+        private Http http = new Http(50, true);
+        private Resilience resilience = new Resilience(20);
+        private Catalog catalog = new Catalog();
 
         // Default constructor
         public Spotify() {}
@@ -88,5 +209,805 @@ public class ApiConfig {
         public void setAccessToken(String accessToken) {
             this.accessToken = accessToken;
         }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(String clientId) {
+            this.clientId = clientId;
+        }
+
+        public String getClientSecret() {
+            return clientSecret;
+        }
+
+        public void setClientSecret(String clientSecret) {
+            this.clientSecret = clientSecret;
+        }
+
+        public String getTokenUrl() {
+            return tokenUrl;
+        }
+
+        public void setTokenUrl(String tokenUrl) {
+            this.tokenUrl = tokenUrl;
+        }
+
+        public Duration getTokenRefreshSkew() {
+            return tokenRefreshSkew;
+        }
+
+        public void setTokenRefreshSkew(Duration tokenRefreshSkew) {
+            this.tokenRefreshSkew = tokenRefreshSkew;
+        }
+
+        public Duration getTokenRetryInterval() {
+            return tokenRetryInterval;
+        }
+
+        public void setTokenRetryInterval(Duration tokenRetryInterval) {
+            this.tokenRetryInterval = tokenRetryInterval;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public Http getHttp() {
+            return http;
+        }
+
+        public void setHttp(Http http) {
+            this.http = http;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+
+        public void setResilience(Resilience resilience) {
+            this.resilience = resilience;
+        }
+
+        public Catalog getCatalog() {
+            return catalog;
+        }
+
+        public void setCatalog(Catalog catalog) {
+            this.catalog = catalog;
+        }
+    }
+
+    /**
+     * Inner class for batch playlist configuration
+     */
+    public static class Batch {
+        private int weatherConcurrency = 16;
+
+        // Default constructor
+        public Batch() {}
+
+        // Getters and Setters
+        public int getWeatherConcurrency() {
+            return weatherConcurrency;
+        }
+
+        public void setWeatherConcurrency(int weatherConcurrency) {
+            this.weatherConcurrency = weatherConcurrency;
+        }
+    }
+
+    /**
+     * Inner class for in-process cache configuration
+     */
+    public static class Cache {
+        private Duration ttl;
+        private long maximumSize;
+        private Duration refreshAfter;
+        private Duration staleTtl;
+
+        // Default constructor
+        public Cache() {}
+
+        public Cache(Duration ttl, long maximumSize, Duration refreshAfter, Duration staleTtl) {
+            this.ttl = ttl;
+            this.maximumSize = maximumSize;
+            this.refreshAfter = refreshAfter;
+            this.staleTtl = staleTtl;
+        }
+
+        // Getters and Setters
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getRefreshAfter() {
+            return refreshAfter;
+        }
+
+        public void setRefreshAfter(Duration refreshAfter) {
+            this.refreshAfter = refreshAfter;
+        }
+
+        public Duration getStaleTtl() {
+            return staleTtl;
+        }
+
+        public void setStaleTtl(Duration staleTtl) {
+            this.staleTtl = staleTtl;
+        }
+    }
+
+    /**
+     * Inner class for per-upstream HTTP client and connection pool configuration
+     */
+    public static class Http {
+        private int maxConnections;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private boolean http2;
+        private boolean compression = true;
+
+        // Default constructor
+        public Http() {}
+
+        public Http(int maxConnections, boolean http2) {
+            this.maxConnections = maxConnections;
+            this.http2 = http2;
+        }
+
+        // Getters and Setters
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getEvictionInterval() {
+            return evictionInterval;
+        }
+
+        public void setEvictionInterval(Duration evictionInterval) {
+            this.evictionInterval = evictionInterval;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+    }
+
+    /**
+     * Inner class for per-upstream timeout, bulkhead, retry and circuit breaker configuration
+     */
+    public static class Resilience {
+        private Duration timeout = Duration.ofSeconds(3);
+        private int maxConcurrentCalls;
+        private Duration maxWait = Duration.ZERO;
+        private int maxRetries = 2;
+        private Duration retryBackoff = Duration.ofMillis(100);
+        private double retryJitter = 0.5;
+        private double retryBudgetRatio = 0.1;
+        private int retryBudgetMaxTokens = 20;
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 3;
+        private int rateLimit;
+        private Duration rateLimitPeriod = Duration.ofSeconds(1);
+        private Duration rateLimitMaxWait = Duration.ofMillis(500);
+        private Duration throttlePause = Duration.ofSeconds(1);
+        private Duration throttleMaxPause = Duration.ofSeconds(60);
+        private Duration throttleRampUp = Duration.ofSeconds(10);
+
+        // Default constructor
+        public Resilience() {}
+
+        public Resilience(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        // Getters and Setters
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public double getRetryJitter() {
+            return retryJitter;
+        }
+
+        public void setRetryJitter(double retryJitter) {
+            this.retryJitter = retryJitter;
+        }
+
+        public double getRetryBudgetRatio() {
+            return retryBudgetRatio;
+        }
+
+        public void setRetryBudgetRatio(double retryBudgetRatio) {
+            this.retryBudgetRatio = retryBudgetRatio;
+        }
+
+        public int getRetryBudgetMaxTokens() {
+            return retryBudgetMaxTokens;
+        }
+
+        public void setRetryBudgetMaxTokens(int retryBudgetMaxTokens) {
+            this.retryBudgetMaxTokens = retryBudgetMaxTokens;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+
+        public int getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(int rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Duration getRateLimitPeriod() {
+            return rateLimitPeriod;
+        }
+
+        public void setRateLimitPeriod(Duration rateLimitPeriod) {
+            this.rateLimitPeriod = rateLimitPeriod;
+        }
+
+        public Duration getRateLimitMaxWait() {
+            return rateLimitMaxWait;
+        }
+
+        public void setRateLimitMaxWait(Duration rateLimitMaxWait) {
+            this.rateLimitMaxWait = rateLimitMaxWait;
+        }
+
+        public Duration getThrottlePause() {
+            return throttlePause;
+        }
+
+        public void setThrottlePause(Duration throttlePause) {
+            this.throttlePause = throttlePause;
+        }
+
+        public Duration getThrottleMaxPause() {
+            return throttleMaxPause;
+        }
+
+        public void setThrottleMaxPause(Duration throttleMaxPause) {
+            this.throttleMaxPause = throttleMaxPause;
+        }
+
+        public Duration getThrottleRampUp() {
+            return throttleRampUp;
+        }
+
+        public void setThrottleRampUp(Duration throttleRampUp) {
+            this.throttleRampUp = throttleRampUp;
+        }
+    }
+
+    /**
+     * Inner class for local track catalog configuration
+     */
+    public static class Catalog {
+        private boolean enabled = true;
+        private String path;
+        private int maxTracksPerMood = 500;
+        private int minTracksPerMood = 100;
+        private Duration topUpInterval = Duration.ofSeconds(10);
+        private Duration persistInterval = Duration.ofMinutes(5);
+
+        // Default constructor
+        public Catalog() {}
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getMaxTracksPerMood() {
+            return maxTracksPerMood;
+        }
+
+        public void setMaxTracksPerMood(int maxTracksPerMood) {
+            this.maxTracksPerMood = maxTracksPerMood;
+        }
+
+        public int getMinTracksPerMood() {
+            return minTracksPerMood;
+        }
+
+        public void setMinTracksPerMood(int minTracksPerMood) {
+            this.minTracksPerMood = minTracksPerMood;
+        }
+
+        public Duration getTopUpInterval() {
+            return topUpInterval;
+        }
+
+        public void setTopUpInterval(Duration topUpInterval) {
+            this.topUpInterval = topUpInterval;
+        }
+
+        public Duration getPersistInterval() {
+            return persistInterval;
+        }
+
+        public void setPersistInterval(Duration persistInterval) {
+            this.persistInterval = persistInterval;
+        }
+    }
+
+    /**
+     * Inner class for scheduled playlist warm-up configuration
+     */
+    public static class Warmup {
+        private boolean enabled = true;
+        private Duration interval = Duration.ofMinutes(5);
+        private List<String> cities = new ArrayList<>();
+        private int topRequested = 200;
+        private int concurrency = 8;
+        private int ratePerSecond = 20;
+
+        // Default constructor
+        public Warmup() {}
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public List<String> getCities() {
+            return cities;
+        }
+
+        public void setCities(List<String> cities) {
+            this.cities = cities;
+        }
+
+        public int getTopRequested() {
+            return topRequested;
+        }
+
+        public void setTopRequested(int topRequested) {
+            this.topRequested = topRequested;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(int ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+    }
+
+    /**
+     * Inner class for the cache tier shared between replicas
+     */
+    public static class SharedCache {
+        private String type = "none";
+        private String redisUri = "redis://localhost:6379";
+        private String keyPrefix = "jamcast";
+        private Duration timeout = Duration.ofMillis(200);
+
+        // Default constructor
+        public SharedCache() {}
+
+        // Getters and Setters
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getRedisUri() {
+            return redisUri;
+        }
+
+        public void setRedisUri(String redisUri) {
+            this.redisUri = redisUri;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Inner class for the on-disk snapshot of the upstream caches
+     */
+    public static class Snapshot {
+        private String path;
+        private Duration interval = Duration.ofMinutes(1);
+
+        // Default constructor
+        public Snapshot() {}
+
+        // Getters and Setters
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    /**
+     * Inner class for admission control of incoming playlist requests
+     */
+    public static class Admission {
+        private boolean enabled = true;
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 512;
+        private double latencyTolerance = 2.0;
+        private double smoothing = 0.2;
+        private double cacheReserve = 0.25;
+        private Duration window = Duration.ofSeconds(1);
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        // Default constructor
+        public Admission() {}
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        public void setLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public double getCacheReserve() {
+            return cacheReserve;
+        }
+
+        public void setCacheReserve(double cacheReserve) {
+            this.cacheReserve = cacheReserve;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Inner class for per-client rate limiting of playlist requests
+     */
+    public static class ClientRateLimit {
+        private boolean enabled = true;
+        private double requestsPerSecond = 10;
+        private int burst = 20;
+        private String apiKeyHeader = "X-API-Key";
+        private List<String> apiKeys = new ArrayList<>();
+        private long maxClients = 100_000;
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        // Default constructor
+        public ClientRateLimit() {}
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public String getApiKeyHeader() {
+            return apiKeyHeader;
+        }
+
+        public void setApiKeyHeader(String apiKeyHeader) {
+            this.apiKeyHeader = apiKeyHeader;
+        }
+
+        public List<String> getApiKeys() {
+            return apiKeys;
+        }
+
+        public void setApiKeys(List<String> apiKeys) {
+            this.apiKeys = apiKeys;
+        }
+
+        public long getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(long maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.jamcast.api.config;
+
+import com.jamcast.api.codec.PlaylistResponseEncoder;
+import com.jamcast.api.metrics.PipelineMetrics;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the dedicated response encoders.
+ */
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    public PlaylistResponseEncoder playlistResponseEncoder(PipelineMetrics pipelineMetrics) {
+        return new PlaylistResponseEncoder(pipelineMetrics);
+    }
+
+    /**
+     * Registers the playlist encoder as a custom codec. Custom codecs for a
+     * specific type are consulted before the generic Jackson encoder.
+     */
+    @Bean
+    public CodecCustomizer playlistResponseEncoderCustomizer(PlaylistResponseEncoder playlistResponseEncoder) {
+        return configurer -> configurer.customCodecs().register(playlistResponseEncoder);
+    }
+}
@@ -0,0 +1,27 @@
+package com.jamcast.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.jamcast.api.metrics.TimedJackson2JsonEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Configuration class for pipeline metrics that need to hook into Spring infrastructure.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Replaces the default JSON encoder with one that times serialization.
+     * Ordered after Spring Boot's Jackson codec customizer so it takes precedence.
+     */
+    @Bean
+    @Order(1)
+    public CodecCustomizer timedJsonEncoderCustomizer(ObjectMapper objectMapper, PipelineMetrics pipelineMetrics) {
+        return configurer -> configurer.defaultCodecs()
+                .jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper, pipelineMetrics));
+    }
+}
@@ -0,0 +1,92 @@
+package com.jamcast.api.config;
+
+import com.jamcast.api.resilience.AdmissionControl;
+import com.jamcast.api.resilience.UpstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the upstream resilience policies.
+ * Each upstream gets its own circuit breaker, bulkhead, rate limiter and retry
+ * budget so a degraded API fails fast without affecting the other one.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        return CircuitBreakerRegistry.ofDefaults();
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        return BulkheadRegistry.ofDefaults();
+    }
+
+    @Bean
+    public RateLimiterRegistry rateLimiterRegistry() {
+        return RateLimiterRegistry.ofDefaults();
+    }
+
+    /**
+     * Publishes breaker state and call outcomes as {@code resilience4j.circuitbreaker.*} meters.
+     */
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+    }
+
+    /**
+     * Publishes bulkhead saturation as {@code resilience4j.bulkhead.*} meters.
+     */
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+    }
+
+    /**
+     * Publishes available permissions and waiting calls as {@code resilience4j.ratelimiter.*} meters.
+     */
+    @Bean
+    public MeterBinder rateLimiterMetrics(RateLimiterRegistry rateLimiterRegistry) {
+        return TaggedRateLimiterMetrics.ofRateLimiterRegistry(rateLimiterRegistry);
+    }
+
+    /**
+     * Creates the guard used for OpenWeatherMap calls.
+     */
+    @Bean
+    public UpstreamGuard weatherGuard(ApiConfig apiConfig, CircuitBreakerRegistry circuitBreakerRegistry,
+                                      BulkheadRegistry bulkheadRegistry, RateLimiterRegistry rateLimiterRegistry,
+                                      MeterRegistry meterRegistry) {
+        return new UpstreamGuard("openweathermap", apiConfig.getOpenweathermap().getResilience(),
+                circuitBreakerRegistry, bulkheadRegistry, rateLimiterRegistry, meterRegistry);
+    }
+
+    /**
+     * Creates the guard used for Spotify calls.
+     */
+    @Bean
+    public UpstreamGuard spotifyGuard(ApiConfig apiConfig, CircuitBreakerRegistry circuitBreakerRegistry,
+                                      BulkheadRegistry bulkheadRegistry, RateLimiterRegistry rateLimiterRegistry,
+                                      MeterRegistry meterRegistry) {
+        return new UpstreamGuard("spotify", apiConfig.getSpotify().getResilience(),
+                circuitBreakerRegistry, bulkheadRegistry, rateLimiterRegistry, meterRegistry);
+    }
+
+    /**
+     * Creates the admission control for incoming playlist requests.
+     */
+    @Bean
+    public AdmissionControl playlistAdmission(ApiConfig apiConfig, MeterRegistry meterRegistry) {
+        return new AdmissionControl(apiConfig.getAdmission(), meterRegistry);
+    }
+}
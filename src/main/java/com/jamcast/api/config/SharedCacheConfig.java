@@ -0,0 +1,29 @@
+package com.jamcast.api.config;
+
+import com.jamcast.api.cache.InMemoryRemoteCacheStore;
+import com.jamcast.api.cache.RedisRemoteCacheStore;
+import com.jamcast.api.cache.RemoteCacheStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class selecting the store behind the shared cache tier
+ * from {@code api.shared-cache.type}. With {@code none}, no store is created.
+ */
+@Configuration
+public class SharedCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "api.shared-cache", name = "type", havingValue = "in-memory")
+    public RemoteCacheStore inMemoryRemoteCacheStore() {
+        return new InMemoryRemoteCacheStore();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "api.shared-cache", name = "type", havingValue = "redis")
+    public RemoteCacheStore redisRemoteCacheStore(ApiConfig apiConfig) {
+        ApiConfig.SharedCache sharedCache = apiConfig.getSharedCache();
+        return new RedisRemoteCacheStore(sharedCache.getRedisUri(), sharedCache.getKeyPrefix() + ":invalidations");
+    }
+}
@@ -0,0 +1,111 @@
+package com.jamcast.api.config;
+
+import com.jamcast.api.metrics.UpstreamObservationConvention;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration class for the outbound HTTP clients.
+ * Each upstream gets its own Reactor Netty connection pool so a slow or
+ * saturated API cannot starve the other one of connections.
+ */
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Creates the connection pool used for OpenWeatherMap calls.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider weatherConnectionProvider(ApiConfig apiConfig) {
+        return buildConnectionProvider("openweathermap", apiConfig.getOpenweathermap().getHttp());
+    }
+
+    /**
+     * Creates the connection pool used for Spotify calls.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider spotifyConnectionProvider(ApiConfig apiConfig) {
+        return buildConnectionProvider("spotify", apiConfig.getSpotify().getHttp());
+    }
+
+    /**
+     * Creates the WebClient used for calling the OpenWeatherMap API.
+     */
+    @Bean
+    public WebClient weatherWebClient(WebClient.Builder builder, ApiConfig apiConfig,
+                                      @Qualifier("weatherConnectionProvider") ConnectionProvider connectionProvider) {
+        ApiConfig.OpenWeatherMap openWeatherMap = apiConfig.getOpenweathermap();
+        return buildWebClient(builder, "openweathermap", connectionProvider,
+                openWeatherMap.getHttp(), openWeatherMap.getBaseUrl());
+    }
+
+    /**
+     * Creates the WebClient used for calling the Spotify API.
+     */
+    @Bean
+    public WebClient spotifyWebClient(WebClient.Builder builder, ApiConfig apiConfig,
+                                      @Qualifier("spotifyConnectionProvider") ConnectionProvider connectionProvider) {
+        ApiConfig.Spotify spotify = apiConfig.getSpotify();
+        return buildWebClient(builder, "spotify", connectionProvider, spotify.getHttp(), spotify.getBaseUrl());
+    }
+
+    /**
+     * Builds a bounded connection pool with idle and lifetime eviction.
+     * Pool gauges are published as {@code reactor.netty.connection.provider.*}.
+     *
+     * @param name The pool name, used in logs and metrics
+     * @param http The upstream HTTP settings
+     * @return A configured ConnectionProvider
+     */
+    private ConnectionProvider buildConnectionProvider(String name, ApiConfig.Http http) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireMaxCount(http.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .maxLifeTime(http.getMaxLifeTime())
+                .evictInBackground(http.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Builds a WebClient on top of a dedicated connection pool.
+     * HTTP/2 is only negotiated for TLS endpoints, since it is selected via ALPN.
+     * Requests are observed as {@code http.client.requests} tagged with the upstream name.
+     *
+     * @param builder The Spring Boot configured WebClient builder
+     * @param upstream The upstream name, used in metrics and traces
+     * @param connectionProvider The upstream's connection pool
+     * @param http The upstream HTTP settings
+     * @param baseUrl The upstream base URL
+     * @return A configured WebClient
+     */
+    private WebClient buildWebClient(WebClient.Builder builder, String upstream,
+                                     ConnectionProvider connectionProvider, ApiConfig.Http http, String baseUrl) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(http.getResponseTimeout())
+                .compress(http.isCompression());
+
+        if (http.isHttp2() && baseUrl != null && baseUrl.startsWith("https://")) {
+            httpClient = httpClient
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure();
+        }
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .observationConvention(new UpstreamObservationConvention(upstream))
+                .build();
+    }
+}
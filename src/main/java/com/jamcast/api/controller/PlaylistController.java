@@ -1,20 +1,43 @@
 package com.jamcast.api.controller;
 
+import com.jamcast.api.dto.PlaylistBatchRequest;
 import com.jamcast.api.dto.PlaylistRequest;
 import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistStreamEvent;
+import com.jamcast.api.exception.ClientRateLimitedException;
+import com.jamcast.api.resilience.AdmissionControl;
+import com.jamcast.api.resilience.ClientRateLimiter;
+import com.jamcast.api.service.PlaylistResponseCache;
 import com.jamcast.api.service.PlaylistService;
+import com.jamcast.api.service.SpotifyService;
+import com.jamcast.api.service.WeatherService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * REST controller for playlist-related endpoints.
  * Handles HTTP requests for weather-based playlist generation.
+ * Playlist requests go through admission control: beyond the adaptive
+ * concurrency limit they are shed with 503, and requests that can be served
+ * from cache are admitted ahead of those that need upstream calls.
  */
 @RestController
 @RequestMapping("/api/v1")
@@ -24,34 +47,116 @@ public class PlaylistController {
     private static final Logger logger = LoggerFactory.getLogger(PlaylistController.class);
 
     private final PlaylistService playlistService;
+    private final WeatherService weatherService;
+    private final SpotifyService spotifyService;
+    private final PlaylistResponseCache playlistResponseCache;
+    private final AdmissionControl admissionControl;
+    private final ClientRateLimiter clientRateLimiter;
 
     @Autowired
-    public PlaylistController(PlaylistService playlistService) {
+    public PlaylistController(PlaylistService playlistService, WeatherService weatherService,
+                              SpotifyService spotifyService, PlaylistResponseCache playlistResponseCache,
+                              @Qualifier("playlistAdmission") AdmissionControl admissionControl,
+                              ClientRateLimiter clientRateLimiter) {
         this.playlistService = playlistService;
+        this.weatherService = weatherService;
+        this.spotifyService = spotifyService;
+        this.playlistResponseCache = playlistResponseCache;
+        this.admissionControl = admissionControl;
+        this.clientRateLimiter = clientRateLimiter;
     }
 
     /**
      * POST endpoint for generating weather-based playlists.
+     * Responses carry a strong ETag and a Cache-Control max-age matching the
+     * remaining weather TTL; a matching If-None-Match is answered with 304.
      * 
      * @param request The playlist request containing the city name
-     * @return ResponseEntity containing the generated playlist
+     * @param ifNoneMatch ETags the client already has, if any
+     * @return ResponseEntity containing the generated playlist as JSON
      */
-    @PostMapping("/playlist")
-    public Mono<ResponseEntity<PlaylistResponse>> generatePlaylist(@Valid @RequestBody PlaylistRequest request) {
-        logger.info("Received playlist request for city: {}", request.getCity());
+    @PostMapping(value = "/playlist", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> generatePlaylist(
+            @Valid @RequestBody PlaylistRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received playlist request for: {}", request);
         
-        return playlistService.generatePlaylist(request)
-                .map(playlist -> {
-                    logger.info("Successfully generated playlist for {} with {} tracks", 
-                            request.getCity(), playlist.getTracks().size());
-                    return ResponseEntity.ok(playlist);
-                })
-                .onErrorResume(error -> {
-                    logger.error("Error processing playlist request for {}: {}", 
-                            request.getCity(), error.getMessage());
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(new PlaylistResponse()));
-                });
+        return respondWithPlaylist(request, ifNoneMatch);
+    }
+
+    /**
+     * GET endpoint for generating weather-based playlists.
+     * Equivalent to the POST endpoint, but cacheable by browsers and CDNs.
+     * 
+     * @param request The city name, or latitude and longitude, as query parameters
+     * @param ifNoneMatch ETags the client already has, if any
+     * @return ResponseEntity containing the generated playlist as JSON
+     */
+    @GetMapping(value = "/playlist", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getPlaylist(
+            @Valid @ModelAttribute PlaylistRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("Received playlist request for: {}", request);
+
+        return respondWithPlaylist(request, ifNoneMatch);
+    }
+
+    /**
+     * POST endpoint for streaming a playlist as newline-delimited JSON.
+     * The first line carries the playlist metadata, each following line one track.
+     * 
+     * @param request The playlist request containing the city name
+     * @return Flux of playlist stream events
+     */
+    @PostMapping(value = "/playlist/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PlaylistStreamEvent> streamPlaylist(@Valid @RequestBody PlaylistRequest request) {
+        logger.debug("Received streamed playlist request for: {}", request);
+
+        return admissionControl.admit(playlistService.isCacheServable(request),
+                playlistService.streamPlaylist(request));
+    }
+
+    /**
+     * POST endpoint for streaming a playlist as server-sent events.
+     * Events are named after their type ("header" or "track").
+     * 
+     * @param request The playlist request containing the city name
+     * @return Flux of server-sent playlist stream events
+     */
+    @PostMapping(value = "/playlist/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PlaylistStreamEvent>> streamPlaylistEvents(@Valid @RequestBody PlaylistRequest request) {
+        logger.debug("Received streamed playlist request for: {}", request);
+
+        return admissionControl.admit(playlistService.isCacheServable(request),
+                        playlistService.streamPlaylist(request))
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType())
+                        .build());
+    }
+
+    /**
+     * POST endpoint for generating playlists for many cities at once.
+     * Results are streamed as they become available, either as newline-delimited
+     * JSON or as a JSON array depending on the Accept header. The client's rate
+     * limit is charged one token per city, and the batch holds one admission
+     * control slot while it runs.
+     * 
+     * @param request The batch request containing the city names
+     * @param exchange The current exchange, identifying the client
+     * @return Flux of generated playlists, one per distinct city
+     */
+    @PostMapping(value = "/playlist/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<PlaylistResponse> generatePlaylists(@Valid @RequestBody PlaylistBatchRequest request,
+                                                    ServerWebExchange exchange) {
+        logger.debug("Received batch playlist request for {} cities", request.getCities().size());
+
+        long waitNanos = clientRateLimiter.tryAcquire(exchange.getRequest(), request.getCities().size());
+        if (waitNanos > 0) {
+            return Flux.error(new ClientRateLimitedException("Client rate limit exceeded",
+                    Duration.ofNanos(waitNanos)));
+        }
+        return admissionControl.admitBatch(playlistService.generatePlaylists(request.getCities()));
     }
 
     /**
@@ -64,6 +169,23 @@ public class PlaylistController {
         return ResponseEntity.ok("JamCast API is running!");
     }
 
+    /**
+     * GET endpoint for cache statistics.
+     * 
+     * @return Hit, miss and eviction counters for the weather, recommendations, precomputed
+     *         playlist and serialized playlist caches
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("weather", describeCache(weatherService.getCacheSize(), weatherService.getCacheStats()));
+        response.put("recommendations", describeCache(spotifyService.getCacheSize(), spotifyService.getCacheStats()));
+        response.put("playlists", describeCache(playlistService.getCacheSize(), playlistService.getCacheStats()));
+        response.put("playlistJson", describeCache(playlistResponseCache.getCacheSize(),
+                playlistResponseCache.getCacheStats()));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET endpoint for API information.
      * 
@@ -76,13 +198,77 @@ public class PlaylistController {
                 
                 Endpoints:
                 - POST /api/v1/playlist - Generate playlist based on city weather
+                - GET /api/v1/playlist?city={city} - Same as POST, cacheable by CDNs
+                  (or ?latitude={lat}&longitude={lon})
+                - POST /api/v1/playlist/stream - Stream a playlist as NDJSON or server-sent events
+                - POST /api/v1/playlist/batch - Generate playlists for many cities
                 - GET /api/v1/health - Health check
+                - GET /api/v1/cache/stats - Cache statistics
                 - GET /api/v1/info - This information
                 
-                Example request:
+                Example requests:
                 {
                     "city": "Chicago"
                 }
+                {
+                    "latitude": 41.8781,
+                    "longitude": -87.6298
+                }
                 """);
     }
+
+    /**
+     * Generates a playlist and answers with its cached serialized form, or with
+     * 304 if the client's ETag still matches. Requests shed by admission control
+     * fail with an OverloadException, answered with 503 and Retry-After. Errors
+     * are left to GlobalExceptionHandler, so upstream rejections become 503 and
+     * upstream timeouts 504.
+     * 
+     * @param request The playlist request containing the city name
+     * @param ifNoneMatch ETags the client already has, if any
+     * @return ResponseEntity containing the playlist JSON, or an empty 304
+     */
+    private Mono<ResponseEntity<byte[]>> respondWithPlaylist(PlaylistRequest request, String ifNoneMatch) {
+        return admissionControl.admit(playlistService.isCacheServable(request),
+                generatePlaylistResponse(request, ifNoneMatch));
+    }
+
+    private Mono<ResponseEntity<byte[]>> generatePlaylistResponse(PlaylistRequest request, String ifNoneMatch) {
+        return playlistService.generateSerializedPlaylist(request)
+                .map(serialized -> {
+                    Duration maxAge = weatherService.getRemainingTtl(weatherService.locate(request));
+                    CacheControl cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+
+                    if (serialized.matches(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(serialized.eTag())
+                                .cacheControl(cacheControl)
+                                .<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(serialized.eTag())
+                            .cacheControl(cacheControl)
+                            .body(serialized.json());
+                })
+                .doOnError(error -> logger.debug("Error processing playlist request for {}: {}",
+                        request, error.getMessage()));
+    }
+
+    /**
+     * Flattens cache statistics into a JSON-friendly map.
+     * 
+     * @param size The approximate number of cached entries
+     * @param stats The cache statistics snapshot
+     * @return Map of counter names to values
+     */
+    private Map<String, Object> describeCache(long size, CacheStats stats) {
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("size", size);
+        cache.put("hits", stats.hitCount());
+        cache.put("misses", stats.missCount());
+        cache.put("evictions", stats.evictionCount());
+        cache.put("hitRate", stats.hitRate());
+        return cache;
+    }
 } 
\ No newline at end of file
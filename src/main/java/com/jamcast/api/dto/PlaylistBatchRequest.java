@@ -0,0 +1,42 @@
+package com.jamcast.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for batch playlist requests containing a list of city names.
+ * Used as the request body for the /playlist/batch endpoint.
+ */
+public class PlaylistBatchRequest {
+
+    @NotEmpty(message = "At least one city is required")
+    @Size(max = 500, message = "At most 500 cities can be requested at once")
+    private List<@NotBlank(message = "City name is required")
+            @Size(max = 100, message = "City name must be between 1 and 100 characters") String> cities;
+
+    // Default constructor for JSON deserialization
+    public PlaylistBatchRequest() {}
+
+    public PlaylistBatchRequest(List<String> cities) {
+        this.cities = cities;
+    }
+
+    // Getters and Setters
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public void setCities(List<String> cities) {
+        this.cities = cities;
+    }
+
+    @Override
+    public String toString() {
+        return "PlaylistBatchRequest{" +
+                "cities=" + cities +
+                '}';
+    }
+}
@@ -1,18 +1,28 @@
 package com.jamcast.api.dto;
 
-import jakarta.validation.constraints.NotBlank;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Size;
 
 /**
- * DTO for playlist request containing the city name.
+ * DTO for playlist request containing either a city name or a position.
  * Used as the request body for the /playlist endpoint.
  */
 public class PlaylistRequest {
 
-    @NotBlank(message = "City name is required")
     @Size(min = 1, max = 100, message = "City name must be between 1 and 100 characters")
     private String city;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     // Default constructor for JSON deserialization
     public PlaylistRequest() {}
 
@@ -20,6 +30,27 @@ public class PlaylistRequest {
         this.city = city;
     }
 
+    public PlaylistRequest(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Returns whether the request locates the user by coordinates rather than by city name.
+     *
+     * @return True if both latitude and longitude are present
+     */
+    @JsonIgnore
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Either a city name or both latitude and longitude are required")
+    public boolean isLocationPresent() {
+        return hasCoordinates() || (city != null && !city.isBlank());
+    }
+
     // Getters and Setters
     public String getCity() {
         return city;
@@ -29,10 +60,28 @@ public class PlaylistRequest {
         this.city = city;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     @Override
     public String toString() {
         return "PlaylistRequest{" +
                 "city='" + city + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
                 '}';
     }
-} 
\ No newline at end of file
+}
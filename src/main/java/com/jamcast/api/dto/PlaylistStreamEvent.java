@@ -0,0 +1,99 @@
+package com.jamcast.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+
+/**
+ * DTO for a single event of a streamed playlist.
+ * A stream starts with one "header" event carrying the playlist metadata,
+ * followed by one "track" event per track.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlaylistStreamEvent {
+
+    public static final String TYPE_HEADER = "header";
+    public static final String TYPE_TRACK = "track";
+
+    private String type;
+    private String playlistTitle;
+    private String weatherCondition;
+    private String mood;
+    private String city;
+    private PlaylistTrack track;
+
+    // Default constructor for JSON serialization
+    public PlaylistStreamEvent() {}
+
+    /**
+     * Creates the header event that opens a playlist stream.
+     */
+    public static PlaylistStreamEvent header(String playlistTitle, String weatherCondition,
+                                             String mood, String city) {
+        PlaylistStreamEvent event = new PlaylistStreamEvent();
+        event.type = TYPE_HEADER;
+        event.playlistTitle = playlistTitle;
+        event.weatherCondition = weatherCondition;
+        event.mood = mood;
+        event.city = city;
+        return event;
+    }
+
+    /**
+     * Creates a track event.
+     */
+    public static PlaylistStreamEvent track(PlaylistTrack track) {
+        PlaylistStreamEvent event = new PlaylistStreamEvent();
+        event.type = TYPE_TRACK;
+        event.track = track;
+        return event;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPlaylistTitle() {
+        return playlistTitle;
+    }
+
+    public void setPlaylistTitle(String playlistTitle) {
+        this.playlistTitle = playlistTitle;
+    }
+
+    public String getWeatherCondition() {
+        return weatherCondition;
+    }
+
+    public void setWeatherCondition(String weatherCondition) {
+        this.weatherCondition = weatherCondition;
+    }
+
+    public String getMood() {
+        return mood;
+    }
+
+    public void setMood(String mood) {
+        this.mood = mood;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public PlaylistTrack getTrack() {
+        return track;
+    }
+
+    public void setTrack(PlaylistTrack track) {
+        this.track = track;
+    }
+}
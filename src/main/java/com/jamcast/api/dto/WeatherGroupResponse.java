@@ -0,0 +1,37 @@
+package com.jamcast.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * DTO for OpenWeatherMap group API response.
+ * Maps the JSON response from the multi-city group endpoint.
+ */
+public class WeatherGroupResponse {
+
+    @JsonProperty("cnt")
+    private int count;
+
+    @JsonProperty("list")
+    private List<WeatherResponse> list;
+
+    // Default constructor for JSON deserialization
+    public WeatherGroupResponse() {}
+
+    // Getters and Setters
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<WeatherResponse> getList() {
+        return list;
+    }
+
+    public void setList(List<WeatherResponse> list) {
+        this.list = list;
+    }
+}
@@ -15,6 +15,9 @@ public class WeatherResponse {
     @JsonProperty("main")
     private Main main;
 
+    @JsonProperty("id")
+    private long cityId;
+
     @JsonProperty("name")
     private String cityName;
 
@@ -38,6 +41,14 @@ public class WeatherResponse {
         this.main = main;
     }
 
+    public long getCityId() {
+        return cityId;
+    }
+
+    public void setCityId(long cityId) {
+        this.cityId = cityId;
+    }
+
     public String getCityName() {
         return cityName;
     }
@@ -0,0 +1,27 @@
+package com.jamcast.api.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client has used up its rate limit.
+ */
+public class ClientRateLimitedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public ClientRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long the client should wait before retrying.
+     *
+     * @return The suggested retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
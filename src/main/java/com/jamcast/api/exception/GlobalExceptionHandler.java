@@ -1,16 +1,23 @@
 package com.jamcast.api.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Global exception handler for the JamCast API.
@@ -44,6 +51,47 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    /**
+     * Handles validation errors on request parameters.
+     * 
+     * @param ex The method validation exception
+     * @return ResponseEntity with validation error details
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, Object>> handleMethodValidationException(HandlerMethodValidationException ex) {
+        logger.warn("Validation error: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Validation failed");
+        errorResponse.put("message", "Request validation failed");
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        
+        Map<String, String> fieldErrors = new HashMap<>();
+        ex.getAllValidationResults().forEach(result -> result.getResolvableErrors().forEach(error ->
+                fieldErrors.put(result.getMethodParameter().getParameterName(), error.getDefaultMessage())));
+        errorResponse.put("fieldErrors", fieldErrors);
+        
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    /**
+     * Handles malformed requests, such as a missing request parameter or unreadable body.
+     * 
+     * @param ex The input exception
+     * @return ResponseEntity with bad request details
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, Object>> handleInputException(ServerWebInputException ex) {
+        logger.warn("Invalid request: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Bad request");
+        errorResponse.put("message", ex.getReason());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     /**
      * Handles WebClient response errors (API call failures).
      * 
@@ -60,9 +108,120 @@ public class GlobalExceptionHandler {
         errorResponse.put("status", ex.getStatusCode().value());
         errorResponse.put("details", ex.getMessage());
         
+        // The upstream's quota is shared by all our clients, so its 429 is our 503, not the caller's 429
+        if (ex.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            String retryAfter = ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+            if (retryAfter != null) {
+                response.header(HttpHeaders.RETRY_AFTER, retryAfter);
+            }
+            return response.body(errorResponse);
+        }
         return ResponseEntity.status(ex.getStatusCode()).body(errorResponse);
     }
 
+    /**
+     * Handles calls rejected because an upstream's circuit is open, its bulkhead
+     * is full or its rate limit is used up.
+     * 
+     * @param ex The rejection exception
+     * @return ResponseEntity with upstream unavailable details
+     */
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class, RequestNotPermitted.class})
+    public ResponseEntity<Map<String, Object>> handleUpstreamRejection(RuntimeException ex) {
+        logger.warn("Upstream call rejected: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service unavailable");
+        errorResponse.put("message", "External service is temporarily unavailable");
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    /**
+     * Handles calls held back because the upstream recently answered 429 and
+     * nothing cached could be served instead.
+     * 
+     * @param ex The throttled exception
+     * @return ResponseEntity with upstream unavailable details and a Retry-After header
+     */
+    @ExceptionHandler(UpstreamThrottledException.class)
+    public ResponseEntity<Map<String, Object>> handleUpstreamThrottled(UpstreamThrottledException ex) {
+        logger.warn("Upstream call held back: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service unavailable");
+        errorResponse.put("message", "External service is throttling requests, retry later");
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles requests from clients that have used up their rate limit.
+     * 
+     * @param ex The rate limited exception
+     * @return ResponseEntity with too many requests details and a Retry-After header
+     */
+    @ExceptionHandler(ClientRateLimitedException.class)
+    public ResponseEntity<Map<String, Object>> handleClientRateLimited(ClientRateLimitedException ex) {
+        logger.debug("Client rate limited: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Too many requests");
+        errorResponse.put("message", "Client rate limit exceeded");
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles requests shed because the service is at its concurrency limit.
+     * 
+     * @param ex The overload exception
+     * @return ResponseEntity with service unavailable details and a Retry-After header
+     */
+    @ExceptionHandler(OverloadException.class)
+    public ResponseEntity<Map<String, Object>> handleOverloadException(OverloadException ex) {
+        logger.debug("Request shed: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service unavailable");
+        errorResponse.put("message", "Server is overloaded, retry later");
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles upstream calls that did not complete within their timeout.
+     * 
+     * @param ex The timeout exception
+     * @return ResponseEntity with gateway timeout details
+     */
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleTimeoutException(TimeoutException ex) {
+        logger.warn("Upstream call timed out: {}", ex.getMessage());
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Gateway timeout");
+        errorResponse.put("message", "External service did not respond in time");
+        errorResponse.put("status", HttpStatus.GATEWAY_TIMEOUT.value());
+        
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+    }
+
     /**
      * Handles general runtime exceptions.
      * 
@@ -0,0 +1,27 @@
+package com.jamcast.api.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed because the service is at its concurrency limit.
+ */
+public class OverloadException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public OverloadException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long the client should wait before retrying.
+     *
+     * @return The suggested retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,28 @@
+package com.jamcast.api.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of calling an upstream that recently answered 429, while its
+ * pause lasts or while calls to it are being ramped back up.
+ */
+public class UpstreamThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public UpstreamThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long until calls to the upstream are expected to resume.
+     *
+     * @return The suggested retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,126 @@
+package com.jamcast.api.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Records timings and in-flight counts for each stage of the playlist pipeline.
+ * Every stage is published as the {@code jamcast.playlist.stage} timer tagged with
+ * {@code stage} and {@code outcome}, plus a {@code jamcast.playlist.stage.active} gauge.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "jamcast.playlist.stage";
+    public static final String STAGE_ACTIVE_GAUGE = "jamcast.playlist.stage.active";
+
+    public static final String WEATHER_FETCH = "weather.fetch";
+    public static final String MOOD_MAPPING = "mood.mapping";
+    public static final String SPOTIFY_FETCH = "spotify.fetch";
+    public static final String TRACK_CONVERSION = "track.conversion";
+    public static final String SERIALIZATION = "serialization";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a reactive stage from subscription until it terminates or is cancelled.
+     * 
+     * @param stageName The pipeline stage name
+     * @param work The stage to time
+     * @return The same stage, instrumented
+     */
+    public <T> Mono<T> timeStage(String stageName, Mono<T> work) {
+        return Mono.defer(() -> {
+            Stage stage = stage(stageName);
+            stage.active.incrementAndGet();
+            long start = System.nanoTime();
+            return work.doFinally(signal -> {
+                stage.active.decrementAndGet();
+                stage.record(signal, System.nanoTime() - start);
+            });
+        });
+    }
+
+    /**
+     * Times a synchronous stage.
+     * 
+     * @param stageName The pipeline stage name
+     * @param work The stage to time
+     * @return The stage result
+     */
+    public <T> T timeStage(String stageName, Supplier<T> work) {
+        Stage stage = stage(stageName);
+        stage.active.incrementAndGet();
+        long start = System.nanoTime();
+        SignalType outcome = SignalType.ON_ERROR;
+        try {
+            T result = work.get();
+            outcome = SignalType.ON_COMPLETE;
+            return result;
+        } finally {
+            stage.active.decrementAndGet();
+            stage.record(outcome, System.nanoTime() - start);
+        }
+    }
+
+    private Stage stage(String stageName) {
+        return stages.computeIfAbsent(stageName, name -> new Stage(meterRegistry, name));
+    }
+
+    /**
+     * Meters for one stage, cached so recording does not allocate meter ids.
+     * Error and cancellation timers are registered on first use to keep idle series out of the scrape.
+     */
+    private static final class Stage {
+        private final MeterRegistry meterRegistry;
+        private final String name;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Timer success;
+        private volatile Timer error;
+        private volatile Timer cancelled;
+
+        Stage(MeterRegistry meterRegistry, String name) {
+            this.meterRegistry = meterRegistry;
+            this.name = name;
+            this.success = timer("success");
+            Gauge.builder(STAGE_ACTIVE_GAUGE, active, AtomicInteger::get)
+                    .description("Playlist pipeline stages currently in flight")
+                    .tag("stage", name)
+                    .register(meterRegistry);
+        }
+
+        void record(SignalType signal, long nanos) {
+            Timer timer = switch (signal) {
+                case ON_ERROR -> error != null ? error : (error = timer("error"));
+                case CANCEL -> cancelled != null ? cancelled : (cancelled = timer("cancelled"));
+                default -> success;
+            };
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each stage of the playlist pipeline")
+                    .tag("stage", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
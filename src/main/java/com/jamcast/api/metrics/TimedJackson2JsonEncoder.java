@@ -0,0 +1,31 @@
+package com.jamcast.api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+/**
+ * Jackson JSON encoder that records response serialization as a pipeline stage.
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    private final PipelineMetrics pipelineMetrics;
+
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper, PipelineMetrics pipelineMetrics) {
+        super(objectMapper);
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return pipelineMetrics.timeStage(PipelineMetrics.SERIALIZATION,
+                () -> super.encodeValue(value, bufferFactory, valueType, mimeType, hints));
+    }
+}
@@ -0,0 +1,35 @@
+package com.jamcast.api.metrics;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.http.client.observation.ClientHttpObservationDocumentation;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
+
+/**
+ * Observation convention for upstream HTTP calls.
+ * Tags {@code http.client.requests} with the upstream's logical name and the
+ * request path only, since our request URLs carry cities and keys in the query string.
+ */
+public class UpstreamObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private final String upstream;
+
+    public UpstreamObservationConvention(String upstream) {
+        this.upstream = upstream;
+    }
+
+    @Override
+    protected KeyValue clientName(ClientRequestObservationContext context) {
+        return KeyValue.of(ClientHttpObservationDocumentation.LowCardinalityKeyNames.CLIENT_NAME, upstream);
+    }
+
+    @Override
+    protected KeyValue uri(ClientRequestObservationContext context) {
+        ClientRequest request = context.getRequest();
+        if (request == null) {
+            return super.uri(context);
+        }
+        return KeyValue.of(ClientHttpObservationDocumentation.LowCardinalityKeyNames.URI, request.url().getPath());
+    }
+}
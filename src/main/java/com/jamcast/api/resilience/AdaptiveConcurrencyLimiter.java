@@ -0,0 +1,181 @@
+package com.jamcast.api.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency, after the gradient
+ * algorithm used by Netflix's concurrency-limits library.
+ * Latency samples are averaged over windows of at least {@code window}; the
+ * limit is adjusted once per window by comparing the window's average with a
+ * long-term baseline averaged over hundreds of windows. While the window's
+ * latency stays within {@code tolerance} times the baseline, the limit grows
+ * by about its square root; once requests start queueing and latency rises,
+ * the limit shrinks in proportion.
+ * Requests that fail because the system is saturated, such as timeouts, are
+ * a drop signal: they shrink the limit directly, at most once per window.
+ * Part of the limit can be reserved for priority requests, which are admitted
+ * up to the full limit while other requests are held below it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Weight of each window in the baseline, an average over about 600 windows.
+     */
+    private static final double LONG_SMOOTHING = 2.0 / 601;
+    private static final double MIN_GRADIENT = 0.5;
+    /**
+     * Factor the limit is multiplied by on a drop.
+     */
+    private static final double DROP_BACKOFF = 0.9;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double reserve;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    private long lastDrop = System.nanoTime();
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param initialLimit The limit before any latency has been observed
+     * @param minLimit The lowest the limit may shrink to
+     * @param maxLimit The highest the limit may grow to
+     * @param tolerance How many times the baseline latency is tolerated before shrinking, for example 2.0
+     * @param smoothing How far each sample moves the limit toward its new estimate, from 0 to 1
+     * @param reserve The fraction of the limit only priority requests may use, from 0 to 1
+     * @param window The shortest time latency is averaged over before the limit is adjusted
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, double reserve, Duration window) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.0, smoothing));
+        this.reserve = Math.min(1.0, Math.max(0.0, reserve));
+        this.windowNanos = window.toNanos();
+        this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request if the limit allows it.
+     *
+     * @param priority Whether the request may use the reserved part of the limit
+     * @return True if the request was admitted and must call {@link #release(long)}
+     */
+    public boolean tryAcquire(boolean priority) {
+        int current = limit;
+        int allowed = priority ? current : Math.max(1, (int) (current * (1.0 - reserve)));
+        while (true) {
+            int active = inFlight.get();
+            if (active >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request, adjusting the limit to its latency.
+     *
+     * @param rttNanos The request's latency, or a negative value if it should not be sampled
+     */
+    public void release(long rttNanos) {
+        if (rttNanos >= 0) {
+            sample(rttNanos, inFlight.get());
+        }
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases an admitted request that failed because the system is
+     * saturated, shrinking the limit unless it already shrank this window.
+     */
+    public void releaseDropped() {
+        drop();
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return The limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of admitted requests not yet released.
+     *
+     * @return Requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void drop() {
+        long now = System.nanoTime();
+        if (now - lastDrop < windowNanos) {
+            return;
+        }
+        lastDrop = now;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * DROP_BACKOFF);
+        limit = (int) estimatedLimit;
+    }
+
+    private synchronized void sample(long rttNanos, int active) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, active);
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        longRtt += (shortRtt - longRtt) * LONG_SMOOTHING;
+
+        // Latency dropped well below the baseline, e.g. after an upstream recovered;
+        // let the baseline follow faster so it does not justify unbounded growth
+        if (longRtt / shortRtt > 2.0) {
+            longRtt *= 0.95;
+        }
+
+        // With most of the limit unused, latency says nothing about whether it is too high
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit,
+                estimatedLimit * (1.0 - smoothing) + target * smoothing));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,150 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.exception.OverloadException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sheds incoming requests beyond an {@link AdaptiveConcurrencyLimiter}'s limit,
+ * so that under a spike excess requests fail fast with {@link OverloadException}
+ * instead of queueing until everything times out.
+ * Requests that can be answered from cache are cheap and fast: they may use the
+ * part of the limit reserved for them, and only requests that needed upstream
+ * calls and succeeded feed the limiter's latency signal. Failures are not
+ * sampled, as fast failures would make the system look idle; timeouts and
+ * full bulkheads instead tell the limiter to back off.
+ * The limit and in-flight count are published as {@code jamcast.admission.limit}
+ * and {@code jamcast.admission.inflight}, shed requests as
+ * {@code jamcast.admission.rejections} tagged with {@code source}.
+ */
+public class AdmissionControl {
+
+    public static final String LIMIT_GAUGE = "jamcast.admission.limit";
+    public static final String INFLIGHT_GAUGE = "jamcast.admission.inflight";
+    public static final String REJECTIONS_COUNTER = "jamcast.admission.rejections";
+
+    private final ApiConfig.Admission config;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter cacheRejections;
+    private final Counter upstreamRejections;
+
+    public AdmissionControl(ApiConfig.Admission config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.limiter = new AdaptiveConcurrencyLimiter(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getLatencyTolerance(), config.getSmoothing(), config.getCacheReserve(),
+                config.getWindow());
+
+        Gauge.builder(LIMIT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for playlist requests")
+                .register(meterRegistry);
+        Gauge.builder(INFLIGHT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted playlist requests in flight")
+                .register(meterRegistry);
+        this.cacheRejections = rejectionCounter(meterRegistry, "cache");
+        this.upstreamRejections = rejectionCounter(meterRegistry, "upstream");
+    }
+
+    /**
+     * Runs a request if it is admitted, or fails it with {@link OverloadException}.
+     *
+     * @param cacheServable Whether the request can be answered without upstream calls
+     * @param request The request's work, subscribed only once admitted
+     * @return The request's result
+     */
+    public <T> Mono<T> admit(boolean cacheServable, Mono<T> request) {
+        if (!config.isEnabled()) {
+            return request;
+        }
+        return Mono.defer(() -> {
+            if (!limiter.tryAcquire(cacheServable)) {
+                return Mono.error(reject(cacheServable));
+            }
+            long start = System.nanoTime();
+            Throwable[] failure = new Throwable[1];
+            return request
+                    .doOnError(error -> failure[0] = error)
+                    .doFinally(signal -> release(!cacheServable, start, signal, failure[0]));
+        });
+    }
+
+    /**
+     * Runs a streamed request if it is admitted, or fails it with {@link OverloadException}.
+     *
+     * @param cacheServable Whether the request can be answered without upstream calls
+     * @param request The request's work, subscribed only once admitted
+     * @return The request's results
+     */
+    public <T> Flux<T> admit(boolean cacheServable, Flux<T> request) {
+        if (!config.isEnabled()) {
+            return request;
+        }
+        return admit(cacheServable, !cacheServable, request);
+    }
+
+    /**
+     * Runs a batch request if it is admitted, or fails it with {@link OverloadException}.
+     * A batch holds one slot outside the cache reserve for its whole run. Its
+     * latency grows with its size, so it is never sampled, but a batch timing
+     * out still makes the limiter back off.
+     *
+     * @param request The batch's work, subscribed only once admitted
+     * @return The batch's results
+     */
+    public <T> Flux<T> admitBatch(Flux<T> request) {
+        return admit(false, false, request);
+    }
+
+    private <T> Flux<T> admit(boolean priority, boolean sampled, Flux<T> request) {
+        if (!config.isEnabled()) {
+            return request;
+        }
+        return Flux.defer(() -> {
+            if (!limiter.tryAcquire(priority)) {
+                return Flux.error(reject(priority));
+            }
+            long start = System.nanoTime();
+            Throwable[] failure = new Throwable[1];
+            return request
+                    .doOnError(error -> failure[0] = error)
+                    .doFinally(signal -> release(sampled, start, signal, failure[0]));
+        });
+    }
+
+    private OverloadException reject(boolean cacheServable) {
+        (cacheServable ? cacheRejections : upstreamRejections).increment();
+        return new OverloadException("Concurrency limit of " + limiter.getLimit() + " reached",
+                config.getRetryAfter());
+    }
+
+    /**
+     * Releases an admitted request. Cancelled requests, failed ones and
+     * cache-served ones do not say how loaded the upstream path is, so they are
+     * not sampled; failures caused by saturation are reported as drops.
+     */
+    private void release(boolean sampled, long start, SignalType signal, Throwable failure) {
+        if (isSaturation(failure)) {
+            limiter.releaseDropped();
+            return;
+        }
+        boolean succeeded = signal == SignalType.ON_COMPLETE && failure == null;
+        limiter.release(sampled && succeeded ? System.nanoTime() - start : -1);
+    }
+
+    private static boolean isSaturation(Throwable failure) {
+        return failure instanceof TimeoutException || failure instanceof BulkheadFullException;
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder(REJECTIONS_COUNTER)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
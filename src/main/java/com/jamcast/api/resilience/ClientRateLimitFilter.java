@@ -0,0 +1,55 @@
+package com.jamcast.api.resilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Applies the {@link ClientRateLimiter} to single playlist requests, one token
+ * each. Requests over the limit are answered with 429 and Retry-After. The
+ * batch endpoint is not charged here: it costs one token per city, which is
+ * only known once its body is read, so the controller charges it.
+ */
+@Component
+public class ClientRateLimitFilter implements WebFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/api/v1/playlist", "/api/v1/playlist/stream");
+    private static final byte[] TOO_MANY_REQUESTS_BODY = ("{\"error\":\"Too many requests\","
+            + "\"message\":\"Client rate limit exceeded\",\"status\":429}").getBytes(StandardCharsets.UTF_8);
+
+    private final ClientRateLimiter rateLimiter;
+
+    @Autowired
+    public ClientRateLimitFilter(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!rateLimiter.isEnabled() || !LIMITED_PATHS.contains(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(exchange.getRequest(), 1);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(ClientRateLimiter.retryAfterSeconds(waitNanos)));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+    }
+}
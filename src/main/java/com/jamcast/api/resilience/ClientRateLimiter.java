@@ -0,0 +1,105 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * Per-client token buckets for playlist requests, so one noisy client cannot
+ * use up the upstream quotas shared by everyone. Clients are identified by
+ * their API key if it is one of {@code api.client-rate-limit.api-keys}, and
+ * otherwise by their IP address; behind a proxy, set
+ * {@code server.forward-headers-strategy} so the forwarded address is used.
+ * Unknown keys are ignored rather than trusted, so a client cannot get a fresh
+ * bucket by sending a new key with every request. Buckets of idle clients are
+ * dropped. Rejections are counted as {@code jamcast.ratelimit.rejections}.
+ */
+@Component
+public class ClientRateLimiter {
+
+    public static final String REJECTIONS_COUNTER = "jamcast.ratelimit.rejections";
+
+    private final ApiConfig.ClientRateLimit config;
+    private final Set<String> apiKeys;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter rejections;
+
+    @Autowired
+    public ClientRateLimiter(ApiConfig apiConfig, MeterRegistry meterRegistry) {
+        this.config = apiConfig.getClientRateLimit();
+        this.apiKeys = Set.copyOf(config.getApiKeys());
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(config.getIdleTimeout())
+                .maximumSize(config.getMaxClients())
+                .build();
+        this.rejections = Counter.builder(REJECTIONS_COUNTER)
+                .description("Playlist requests rejected by the per-client rate limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether per-client rate limiting is enabled.
+     *
+     * @return True if requests are rate limited
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Charges a request to its client's bucket.
+     *
+     * @param request The incoming request
+     * @param permits The tokens the request costs, such as one per city of a batch
+     * @return Zero if the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long tryAcquire(ServerHttpRequest request, int permits) {
+        if (!config.isEnabled()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientKey(request),
+                key -> new TokenBucket(config.getRequestsPerSecond(), config.getBurst(), now));
+        long waitNanos = bucket.tryAcquire(now, permits);
+        if (waitNanos > 0) {
+            rejections.increment();
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Converts a wait into whole Retry-After seconds, rounded up.
+     *
+     * @param waitNanos The wait returned by {@link #tryAcquire}
+     * @return The Retry-After value in seconds, at least one
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /**
+     * Identifies the client: by API key if it is a configured one, otherwise by IP address.
+     */
+    String clientKey(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(config.getApiKeyHeader());
+        if (StringUtils.hasText(apiKey) && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString());
+    }
+}
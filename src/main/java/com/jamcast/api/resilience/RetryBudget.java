@@ -0,0 +1,63 @@
+package com.jamcast.api.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a fraction of first attempts so that retries cannot
+ * multiply load on an upstream that is already failing.
+ * Every first attempt deposits {@code ratio} tokens and every retry withdraws
+ * one whole token. The balance is capped at {@code maxTokens}, which bounds
+ * the burst of retries allowed after a quiet period.
+ */
+public class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Creates a retry budget that starts full.
+     *
+     * @param ratio Retries allowed per first attempt, for example 0.1 for 10%
+     * @param maxTokens The maximum number of retries that can be banked
+     */
+    public RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = maxTokens * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Credits the budget for a first attempt.
+     */
+    public void deposit() {
+        balance.getAndUpdate(current -> Math.min(capacity, current + deposit));
+    }
+
+    /**
+     * Withdraws one retry from the budget if enough has been banked.
+     *
+     * @return True if the retry may proceed
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Returns the number of whole retries currently available.
+     *
+     * @return Available retries
+     */
+    public double available() {
+        return (double) balance.get() / TOKEN;
+    }
+}
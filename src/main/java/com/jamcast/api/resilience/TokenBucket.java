@@ -0,0 +1,66 @@
+package com.jamcast.api.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm.
+ * Instead of a token count refilled over time, the bucket keeps a single
+ * "theoretical arrival time": the moment the bucket would be full again if no
+ * more requests arrived. A request is allowed if it moves that time no further
+ * than the burst capacity into the future. The whole state is one long updated
+ * by compare-and-set, so concurrent callers never block each other.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrivalTime;
+
+    /**
+     * Creates a bucket that starts full.
+     *
+     * @param ratePerSecond Tokens added per second
+     * @param capacity The most tokens the bucket holds, which bounds bursts
+     * @param now The current {@link System#nanoTime()}
+     */
+    public TokenBucket(double ratePerSecond, int capacity, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.arrivalTime = new AtomicLong(now);
+    }
+
+    /**
+     * Takes one token if one is available.
+     *
+     * @param now The current {@link System#nanoTime()}
+     * @return Zero if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(long now) {
+        return tryAcquire(now, 1);
+    }
+
+    /**
+     * Takes several tokens at once if they are available. A request for more
+     * tokens than the bucket holds is allowed once the bucket is full, and
+     * leaves it in debt, so the caller waits for the excess before its next request.
+     *
+     * @param now The current {@link System#nanoTime()}
+     * @param permits The number of tokens to take
+     * @return Zero if the tokens were taken, otherwise the nanoseconds until they will be available
+     */
+    public long tryAcquire(long now, int permits) {
+        long cost = intervalNanos * Math.max(1, permits);
+        long required = Math.min(cost, burstNanos);
+        while (true) {
+            long current = arrivalTime.get();
+            long start = Math.max(current, now);
+            long ahead = start + required - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (arrivalTime.compareAndSet(current, start + cost)) {
+                return 0;
+            }
+        }
+    }
+}
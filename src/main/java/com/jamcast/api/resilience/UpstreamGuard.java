@@ -0,0 +1,252 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.exception.UpstreamThrottledException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Protects calls to one upstream API with a per-attempt timeout, a concurrency
+ * bulkhead, a circuit breaker and jittered retries capped by a {@link RetryBudget}.
+ * If a rate limit is configured, every attempt, retries included, also takes a
+ * permit from a rate limiter shared by all callers, so the upstream's quota is
+ * never exceeded: attempts wait up to {@code rate-limit-max-wait} for a permit
+ * and are rejected after that, before the upstream would answer 429.
+ * If the upstream answers 429 anyway, an {@link UpstreamPacer} stops calls for
+ * as long as its {@code Retry-After} asks, then lets them back in gradually over
+ * {@code throttle-ramp-up}; calls held back fail fast with
+ * {@link UpstreamThrottledException}, so callers serve cached data meanwhile.
+ * Rejections are published as {@code jamcast.upstream.rejections} tagged with
+ * {@code upstream} and {@code reason}; breaker state and bulkhead saturation are
+ * published by the Resilience4j Micrometer binders.
+ */
+public class UpstreamGuard {
+
+    public static final String REJECTIONS_COUNTER = "jamcast.upstream.rejections";
+    public static final String RETRIES_COUNTER = "jamcast.upstream.retries";
+    public static final String RETRY_BUDGET_GAUGE = "jamcast.upstream.retry.budget";
+    public static final String PACING_GAUGE = "jamcast.upstream.pacing";
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    private final String upstream;
+    private final ApiConfig.Resilience config;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RateLimiter rateLimiter;
+    private final RetryBudget retryBudget;
+    private final UpstreamPacer pacer;
+    private final RetryBackoffSpec retrySpec;
+    private final Counter retries;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+    private final Counter budgetRejections;
+    private final Counter rateLimitRejections;
+    private final Counter throttledRejections;
+
+    public UpstreamGuard(String upstream, ApiConfig.Resilience config,
+                         CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                         RateLimiterRegistry rateLimiterRegistry, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.config = config;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(upstream, CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(config.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+                .recordException(UpstreamGuard::isUpstreamFailure)
+                .build());
+        this.bulkhead = bulkheadRegistry.bulkhead(upstream, BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getMaxConcurrentCalls())
+                .maxWaitDuration(config.getMaxWait())
+                .build());
+        this.rateLimiter = config.getRateLimit() <= 0 ? null : rateLimiterRegistry.rateLimiter(upstream,
+                RateLimiterConfig.custom()
+                        .limitForPeriod(config.getRateLimit())
+                        .limitRefreshPeriod(config.getRateLimitPeriod())
+                        .timeoutDuration(config.getRateLimitMaxWait())
+                        .build());
+        this.retryBudget = new RetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMaxTokens());
+        this.pacer = new UpstreamPacer(config.getThrottleRampUp(), System.nanoTime());
+
+        this.retries = Counter.builder(RETRIES_COUNTER)
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        this.circuitOpenRejections = rejectionCounter(meterRegistry, "circuit_open");
+        this.bulkheadRejections = rejectionCounter(meterRegistry, "bulkhead_full");
+        this.budgetRejections = rejectionCounter(meterRegistry, "retry_budget");
+        this.rateLimitRejections = rejectionCounter(meterRegistry, "rate_limited");
+        this.throttledRejections = rejectionCounter(meterRegistry, "throttled");
+        Gauge.builder(RETRY_BUDGET_GAUGE, retryBudget, RetryBudget::available)
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+        Gauge.builder(PACING_GAUGE, pacer, UpstreamPacer::getShare)
+                .description("Share of calls let through after the upstream answered 429")
+                .tag("upstream", upstream)
+                .register(meterRegistry);
+
+        this.retrySpec = Retry.backoff(config.getMaxRetries(), config.getRetryBackoff())
+                .jitter(config.getRetryJitter())
+                .filter(error -> isRetryable(error) && acquireRetry())
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Applies the pacing, rate limit, timeout, bulkhead, circuit breaker and retry policy to an upstream call.
+     * The call is re-subscribed on every retry, so it must be lazy.
+     *
+     * @param call The upstream call
+     * @return The same call, guarded
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        Mono<T> guarded = call
+                .timeout(config.getTimeout())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+        // Outermost, so waiting for a permit holds no bulkhead slot and rejections never reach the breaker
+        Mono<T> limited = rateLimiter == null ? guarded : guarded.transformDeferred(RateLimiterOperator.of(rateLimiter));
+        // Checked per attempt, so retries already under way also stop once the upstream throttles
+        Mono<T> attempt = Mono.defer(() -> {
+            long wait = pacer.tryAcquire(System.nanoTime());
+            if (wait > 0) {
+                return Mono.error(new UpstreamThrottledException(
+                        upstream + " is throttling calls, holding back", Duration.ofNanos(wait)));
+            }
+            return limited.doOnError(WebClientResponseException.class, this::onResponseError);
+        });
+
+        return Mono.defer(() -> {
+                    retryBudget.deposit();
+                    return attempt.retryWhen(retrySpec);
+                })
+                .doOnError(CallNotPermittedException.class, error -> circuitOpenRejections.increment())
+                .doOnError(BulkheadFullException.class, error -> bulkheadRejections.increment())
+                .doOnError(RequestNotPermitted.class, error -> rateLimitRejections.increment())
+                .doOnError(UpstreamThrottledException.class, error -> throttledRejections.increment());
+    }
+
+    /**
+     * Returns the upstream name this guard protects.
+     *
+     * @return The upstream name
+     */
+    public String getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Returns the current circuit breaker state.
+     *
+     * @return The circuit breaker state
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void onResponseError(WebClientResponseException error) {
+        if (error.getStatusCode().value() != 429) {
+            return;
+        }
+        Duration pause = retryAfter(error.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        pacer.onThrottled(pause, System.nanoTime());
+        logger.warn("{} answered 429, pausing calls for {} ms", upstream, pause.toMillis());
+    }
+
+    /**
+     * Reads a {@code Retry-After} value, given either as seconds or as an HTTP
+     * date. A missing or unreadable value falls back to {@code throttle-pause},
+     * and the pause never exceeds {@code throttle-max-pause}.
+     */
+    Duration retryAfter(String header) {
+        Duration pause = config.getThrottlePause();
+        if (header != null && !header.isBlank()) {
+            String value = header.trim();
+            try {
+                pause = Duration.ofSeconds(Long.parseLong(value));
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    pause = Duration.between(ZonedDateTime.now(),
+                            ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                } catch (DateTimeParseException notDate) {
+                    logger.debug("Unreadable Retry-After from {}: {}", upstream, value);
+                }
+            }
+        }
+        if (pause.isNegative()) {
+            return Duration.ZERO;
+        }
+        return pause.compareTo(config.getThrottleMaxPause()) > 0 ? config.getThrottleMaxPause() : pause;
+    }
+
+    private boolean acquireRetry() {
+        if (retryBudget.tryWithdraw()) {
+            return true;
+        }
+        budgetRejections.increment();
+        logger.debug("Retry budget for {} exhausted, failing without retry", upstream);
+        return false;
+    }
+
+    private Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(REJECTIONS_COUNTER)
+                .tag("upstream", upstream)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a failure says something about the upstream's health.
+     * Client errors such as an unknown city are the caller's fault and must not
+     * open the breaker; 429 is counted because the upstream is shedding load.
+     */
+    static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return !(error instanceof BulkheadFullException || error instanceof RequestNotPermitted
+                || error instanceof UpstreamThrottledException);
+    }
+
+    /**
+     * Decides whether a failed attempt is worth retrying: timeouts, connection
+     * failures and 5xx responses. Rejections by the guard itself are never retried.
+     */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+}
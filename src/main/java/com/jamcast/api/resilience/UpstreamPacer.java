@@ -0,0 +1,86 @@
+package com.jamcast.api.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces calls to an upstream that has throttled us with 429.
+ * For the pause the upstream asked for, no calls are let through at all.
+ * After the pause, the share of calls let through ramps up linearly from
+ * {@link #MIN_RAMP_SHARE} to all of them over the ramp-up period, so the
+ * backlog of callers does not hit the upstream at once and get throttled
+ * again. Calls are picked at random, so the state is two longs and no lock.
+ */
+public class UpstreamPacer {
+
+    /**
+     * Share of calls let through right after a pause ends.
+     */
+    static final double MIN_RAMP_SHARE = 0.1;
+
+    private final long rampUpNanos;
+    private final AtomicLong pausedUntil;
+
+    /**
+     * Creates a pacer that lets every call through until the first 429.
+     *
+     * @param rampUp How long it takes to go back to letting every call through after a pause
+     * @param now The current {@link System#nanoTime()}
+     */
+    public UpstreamPacer(Duration rampUp, long now) {
+        this.rampUpNanos = Math.max(0, rampUp.toNanos());
+        this.pausedUntil = new AtomicLong(now - rampUpNanos);
+    }
+
+    /**
+     * Pauses calls after the upstream answered 429. Overlapping pauses extend
+     * to the latest end; a shorter pause never cuts a longer one short.
+     *
+     * @param pause How long the upstream asked us to wait
+     * @param now The current {@link System#nanoTime()}
+     */
+    public void onThrottled(Duration pause, long now) {
+        long until = now + pause.toNanos();
+        pausedUntil.accumulateAndGet(until, (current, proposed) -> proposed - current > 0 ? proposed : current);
+    }
+
+    /**
+     * Decides whether a call may go to the upstream now.
+     *
+     * @param now The current {@link System#nanoTime()}
+     * @return Zero if the call may proceed, otherwise the nanoseconds callers should wait
+     */
+    public long tryAcquire(long now) {
+        long resumeAt = pausedUntil.get();
+        long sinceResume = now - resumeAt;
+        if (sinceResume < 0) {
+            return -sinceResume;
+        }
+        if (sinceResume >= rampUpNanos) {
+            return 0;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < share(sinceResume)) {
+            return 0;
+        }
+        // Callers turned away during the ramp are told to come back within a tenth of it
+        return Math.max(1, rampUpNanos / 10);
+    }
+
+    /**
+     * Returns the share of calls currently let through, from 0 while paused to 1.
+     *
+     * @return The admitted share of calls
+     */
+    public double getShare() {
+        long sinceResume = System.nanoTime() - pausedUntil.get();
+        if (sinceResume < 0) {
+            return 0;
+        }
+        return sinceResume >= rampUpNanos ? 1.0 : share(sinceResume);
+    }
+
+    private double share(long sinceResume) {
+        return MIN_RAMP_SHARE + (1.0 - MIN_RAMP_SHARE) * sinceResume / rampUpNanos;
+    }
+}
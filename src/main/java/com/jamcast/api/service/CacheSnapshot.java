@@ -0,0 +1,228 @@
+package com.jamcast.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.WeatherResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of the weather and recommendations caches on local disk, so a
+ * restarted replica starts warm instead of calling OpenWeatherMap and Spotify
+ * for every location and mood again. The snapshot is loaded before the
+ * application starts serving, rewritten every {@code api.snapshot.interval},
+ * and written on shutdown. Each entry keeps its remaining time to live, less
+ * the time the application was down, so restored entries expire when they
+ * would have expired had the application kept running.
+ * <p>
+ * The file is written and read through a memory mapping:
+ * <pre>
+ * int magic, int version, long written-at epoch millis, int section count
+ * per section: string name, int entry count
+ * per entry:   string key, long remaining millis, int length, JSON value
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes. A file with another
+ * magic or version is ignored.
+ */
+@Component
+public class CacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    private static final int MAGIC = 0x4A43534E; // "JCSN"
+    // 2: weather keys name their kind, as in city:london
+    private static final int VERSION = 2;
+
+    private static final String WEATHER = "weather";
+    private static final String RECOMMENDATIONS = "recommendations";
+
+    private final WeatherService weatherService;
+    private final SpotifyService spotifyService;
+    private final ObjectMapper objectMapper;
+    private final ApiConfig.Snapshot snapshotConfig;
+
+    @Autowired
+    public CacheSnapshot(WeatherService weatherService, SpotifyService spotifyService, ObjectMapper objectMapper,
+                         ApiConfig apiConfig) {
+        this.weatherService = weatherService;
+        this.spotifyService = spotifyService;
+        this.objectMapper = objectMapper;
+        this.snapshotConfig = apiConfig.getSnapshot();
+    }
+
+    /**
+     * A cached value together with how much longer it may be served.
+     *
+     * @param key The cache key
+     * @param value The cached value
+     * @param expiresIn The remaining time to live
+     */
+    public record Entry<V>(String key, V value, Duration expiresIn) {}
+
+    /**
+     * Restores the caches from the snapshot, if there is one. A missing,
+     * unreadable or incompatible file leaves the caches empty.
+     */
+    @PostConstruct
+    public void load() {
+        Path path = snapshotPath();
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring cache snapshot {}: unknown format", path);
+                return;
+            }
+            Duration downtime = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - buffer.getLong()));
+            // Read the whole file first, so a truncated one restores nothing
+            List<StoredEntry> stored = new ArrayList<>();
+            int sections = buffer.getInt();
+            for (int s = 0; s < sections; s++) {
+                String section = readString(buffer);
+                int entries = buffer.getInt();
+                for (int e = 0; e < entries; e++) {
+                    String key = readString(buffer);
+                    Duration expiresIn = Duration.ofMillis(buffer.getLong()).minus(downtime);
+                    byte[] json = new byte[buffer.getInt()];
+                    buffer.get(json);
+                    if (!expiresIn.isNegative() && !expiresIn.isZero()) {
+                        stored.add(new StoredEntry(section, key, json, expiresIn));
+                    }
+                }
+            }
+            int restored = 0;
+            for (StoredEntry entry : stored) {
+                if (restore(entry.section(), entry.key(), entry.json(), entry.expiresIn())) {
+                    restored++;
+                }
+            }
+            logger.info("Restored {} cache entries from {} in {} ms", restored, path,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable cache snapshot {}: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * Writes the current cache contents to disk. The file is replaced
+     * atomically, so a crash never leaves a partial snapshot.
+     */
+    @Scheduled(initialDelayString = "#{@apiConfig.snapshot.interval.toMillis()}",
+            fixedDelayString = "#{@apiConfig.snapshot.interval.toMillis()}")
+    @PreDestroy
+    public synchronized void persist() {
+        Path path = snapshotPath();
+        if (path == null) {
+            return;
+        }
+        try {
+            List<EncodedEntry> weather = encode(weatherService.snapshotCache());
+            List<EncodedEntry> recommendations = encode(spotifyService.snapshotCache());
+            long size = 20 + sectionSize(WEATHER, weather) + sectionSize(RECOMMENDATIONS, recommendations);
+
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putInt(2);
+                writeSection(buffer, WEATHER, weather);
+                writeSection(buffer, RECOMMENDATIONS, recommendations);
+                buffer.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Snapshotted {} weather and {} recommendations entries to {}",
+                    weather.size(), recommendations.size(), path);
+        } catch (IOException e) {
+            logger.warn("Failed to write cache snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private boolean restore(String section, String key, byte[] json, Duration expiresIn) throws IOException {
+        switch (section) {
+            case WEATHER -> weatherService.restoreCache(
+                    key, objectMapper.readValue(json, WeatherResponse.class), expiresIn);
+            case RECOMMENDATIONS -> spotifyService.restoreCache(
+                    key, objectMapper.readValue(json, SpotifyRecommendationsResponse.class), expiresIn);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<EncodedEntry> encode(List<? extends Entry<?>> entries) throws IOException {
+        List<EncodedEntry> encoded = new ArrayList<>(entries.size());
+        for (Entry<?> entry : entries) {
+            encoded.add(new EncodedEntry(entry.key().getBytes(StandardCharsets.UTF_8),
+                    entry.expiresIn().toMillis(), objectMapper.writeValueAsBytes(entry.value())));
+        }
+        return encoded;
+    }
+
+    private static long sectionSize(String name, List<EncodedEntry> entries) {
+        long size = 4 + name.getBytes(StandardCharsets.UTF_8).length + 4;
+        for (EncodedEntry entry : entries) {
+            size += 4 + entry.key().length + 8 + 4 + entry.json().length;
+        }
+        return size;
+    }
+
+    private static void writeSection(ByteBuffer buffer, String name, List<EncodedEntry> entries) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(nameBytes.length).put(nameBytes).putInt(entries.size());
+        for (EncodedEntry entry : entries) {
+            buffer.putInt(entry.key().length).put(entry.key())
+                    .putLong(entry.expiresInMillis())
+                    .putInt(entry.json().length).put(entry.json());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path snapshotPath() {
+        return StringUtils.hasText(snapshotConfig.getPath()) ? Path.of(snapshotConfig.getPath()) : null;
+    }
+
+    /**
+     * An entry serialized for writing, so the file size is known before mapping it.
+     */
+    private record EncodedEntry(byte[] key, long expiresInMillis, byte[] json) {}
+
+    /**
+     * An entry read from the file that has not expired during the downtime.
+     */
+    private record StoredEntry(String section, String key, byte[] json, Duration expiresIn) {}
+}
@@ -0,0 +1,68 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts playlist requests per city so the most requested cities can be warmed up.
+ * Only a bounded number of cities is tracked; Caffeine's frequency-based admission
+ * keeps the popular ones when one-off city names churn through.
+ */
+@Component
+public class CityRequestTracker {
+
+    private final Cache<String, CityCount> counts;
+
+    @Autowired
+    public CityRequestTracker(ApiConfig apiConfig) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(Math.max(100, apiConfig.getWarmup().getTopRequested() * 10L))
+                .build();
+    }
+
+    /**
+     * Records one request for a city.
+     *
+     * @param city The city name as supplied by the client
+     */
+    public void recordRequest(String city) {
+        counts.get(WeatherService.normalizeCity(city), key -> new CityCount(city)).count.incrementAndGet();
+    }
+
+    /**
+     * Returns the most requested cities and halves every count, so cities that
+     * stop being requested drop out over the following cycles.
+     *
+     * @param limit The maximum number of cities to return
+     * @return City names ordered by request count, most requested first
+     */
+    public List<String> topCitiesAndDecay(int limit) {
+        List<String> top = counts.asMap().values().stream()
+                .sorted(Comparator.comparingLong((CityCount cityCount) -> cityCount.count.get()).reversed())
+                .limit(limit)
+                .map(cityCount -> cityCount.city)
+                .toList();
+        counts.asMap().values().forEach(cityCount -> cityCount.count.getAndUpdate(count -> count / 2));
+        counts.asMap().values().removeIf(cityCount -> cityCount.count.get() == 0);
+        return top;
+    }
+
+    /**
+     * A city's display name and its request count.
+     */
+    private static class CityCount {
+        private final String city;
+        private final AtomicLong count = new AtomicLong();
+
+        CityCount(String city) {
+            this.city = city;
+        }
+    }
+}
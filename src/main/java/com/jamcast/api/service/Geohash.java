@@ -0,0 +1,125 @@
+package com.jamcast.api.service;
+
+import java.util.Arrays;
+
+/**
+ * Minimal geohash encoder and decoder.
+ * A geohash interleaves longitude and latitude bits and writes them in base 32,
+ * so every prefix names a rectangular cell and nearby points share a prefix.
+ * At precision 5 a cell is roughly 4.9 km by 4.9 km.
+ */
+final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {}
+
+    /**
+     * Encodes a position as the geohash of the cell containing it.
+     *
+     * @param latitude Latitude in degrees, -90 to 90
+     * @param longitude Longitude in degrees, -180 to 180
+     * @param precision Number of base 32 characters, 1 to 12
+     * @return The geohash of the containing cell
+     */
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+
+        for (int i = 0; i < precision; i++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                index <<= 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index |= 1;
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index |= 1;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[i] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Returns whether a string is a geohash of precision 1 to 12.
+     *
+     * @param geohash The string to check
+     * @return True if every character is a geohash base 32 digit
+     */
+    static boolean isValid(String geohash) {
+        if (geohash.isEmpty() || geohash.length() > 12) {
+            return false;
+        }
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = geohash.charAt(i);
+            if (c >= DECODE.length || DECODE[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a geohash into the center of its cell.
+     *
+     * @param geohash The geohash to decode
+     * @return The cell center as {latitude, longitude}
+     */
+    static double[] decodeCenter(String geohash) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = geohash.charAt(i);
+            int index = c < DECODE.length ? DECODE[c] : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {(minLat + maxLat) / 2, (minLon + maxLon) / 2};
+    }
+}
@@ -0,0 +1,134 @@
+package com.jamcast.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects stage timings for a single playlist request and writes them as one
+ * structured summary line when the request finishes.
+ * Replaces per-stage INFO logging so log volume is one line per request.
+ * Values a client or upstream controls are escaped, so they cannot break the
+ * line or forge another one.
+ */
+class PlaylistRequestLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistRequestLog.class);
+
+    private final String city;
+    private final long startNanos = System.nanoTime();
+    private long weatherNanos;
+    private long spotifyNanos;
+    private long conversionNanos;
+    private String weatherCondition;
+    private String mood;
+    private int trackCount;
+    private boolean precomputed;
+    private boolean serialized;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    PlaylistRequestLog(String city) {
+        this.city = city;
+    }
+
+    void weatherResolved(String weatherCondition, String mood) {
+        this.weatherNanos = System.nanoTime();
+        this.weatherCondition = weatherCondition;
+        this.mood = mood;
+    }
+
+    void recommendationsResolved() {
+        this.spotifyNanos = System.nanoTime();
+    }
+
+    void tracksConverted(int trackCount) {
+        this.conversionNanos = System.nanoTime();
+        this.trackCount = trackCount;
+    }
+
+    void servedPrecomputed(String weatherCondition, String mood, int trackCount) {
+        this.precomputed = true;
+        this.weatherCondition = weatherCondition;
+        this.mood = mood;
+        this.trackCount = trackCount;
+    }
+
+    void servedSerialized(String weatherCondition, String mood, int trackCount) {
+        this.serialized = true;
+        this.weatherCondition = weatherCondition;
+        this.mood = mood;
+        this.trackCount = trackCount;
+    }
+
+    /**
+     * Writes the summary line. Stages that did not complete are reported as -1.
+     * Only the first call has an effect, even when an error and a cancellation
+     * race on different threads, so a client disconnecting after a successful
+     * response does not log the request twice.
+     * 
+     * @param outcome The request outcome ("ok", "error" or "cancelled")
+     * @param error The failure cause, or null
+     */
+    void finish(String outcome, Throwable error) {
+        if (!logger.isInfoEnabled() || !finished.compareAndSet(false, true)) {
+            return;
+        }
+        long endNanos = System.nanoTime();
+        logger.info("playlist city=\"{}\" outcome={} condition={} mood={} tracks={} totalUs={} weatherUs={} spotifyUs={} conversionUs={}{}{}{}",
+                escape(city),
+                outcome,
+                escape(weatherCondition),
+                mood,
+                trackCount,
+                micros(startNanos, endNanos),
+                micros(startNanos, weatherNanos),
+                micros(weatherNanos, spotifyNanos),
+                micros(spotifyNanos, conversionNanos),
+                precomputed ? " precomputed=true" : "",
+                serialized ? " serialized=true" : "",
+                error == null ? "" : " error=\"" + escape(error.getMessage()) + "\"");
+    }
+
+    /**
+     * Escapes backslashes, double quotes and control characters, such as CR
+     * and LF, so a value stays within its quotes on a single line.
+     *
+     * @param value The value to escape, or null
+     * @return The escaped value, or null
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case '"' -> "\\\"";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> Character.isISOControl(c) || c == '\u2028' || c == '\u2029'
+                        ? String.format("\\u%04x", (int) c)
+                        : null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    private static long micros(long fromNanos, long toNanos) {
+        return fromNanos == 0 || toNanos == 0 ? -1 : (toNanos - fromNanos) / 1_000;
+    }
+}
@@ -0,0 +1,272 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.codec.PlaylistResponseEncoder;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Caches serialized playlist JSON per (city, weather condition, mood) together
+ * with a strong ETag, so repeated requests for a city are answered without
+ * generating or serializing the playlist again. Only the JSON around the tracks
+ * is held per entry; the tracks are encoded as {@link TrackStore} IDs and their
+ * JSON fragments are shared between every cached playlist that contains them. Each entry expires together
+ * with the weather it was built from. The tracks are frozen with the entry:
+ * recommendations sampled from the catalog differ on every call, but a city
+ * keeps the tracks of its first serialized playlist until its weather
+ * expires, which keeps the ETag stable for revalidation.
+ */
+@Component
+public class PlaylistResponseCache implements MeterBinder {
+
+    private final PlaylistResponseEncoder playlistResponseEncoder;
+    private final PipelineMetrics pipelineMetrics;
+    private final TrackStore trackStore;
+    private final Cache<Key, SerializedPlaylist> cache;
+
+    @Autowired
+    public PlaylistResponseCache(PlaylistResponseEncoder playlistResponseEncoder, PipelineMetrics pipelineMetrics,
+                                 TrackStore trackStore, ApiConfig apiConfig) {
+        this.playlistResponseEncoder = playlistResponseEncoder;
+        this.pipelineMetrics = pipelineMetrics;
+        this.trackStore = trackStore;
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<Key, SerializedPlaylist>() {
+                    @Override
+                    public long expireAfterCreate(Key key, SerializedPlaylist value, long currentTime) {
+                        return value.maxAge().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, SerializedPlaylist value, long currentTime,
+                                                  long currentDuration) {
+                        return value.maxAge().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, SerializedPlaylist value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(apiConfig.getOpenweathermap().getCache().getMaximumSize())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the playlist serialized for a city, weather condition and mood, if
+     * one is cached. Lets a request be answered before any playlist is generated.
+     *
+     * @param city The city name shown in the playlist
+     * @param weatherCondition The current weather condition
+     * @param mood The mood mapped from the current weather
+     * @return The cached JSON bytes and their ETag, or null
+     */
+    public SerializedPlaylist getIfPresent(String city, String weatherCondition, String mood) {
+        return cache.getIfPresent(new Key(city, weatherCondition, mood));
+    }
+
+    /**
+     * Serializes a playlist and caches it, unless a playlist for the same city,
+     * weather condition and mood was cached meanwhile, which is returned instead.
+     * Hits and misses are counted by {@link #getIfPresent}, not here.
+     *
+     * @param response The playlist to serialize
+     * @param maxAge How long the playlist stays valid, normally the remaining weather TTL; zero disables caching
+     * @return The JSON bytes and their ETag
+     */
+    public SerializedPlaylist serialize(PlaylistResponse response, Duration maxAge) {
+        if (maxAge.isZero()) {
+            return pipelineMetrics.timeStage(PipelineMetrics.SERIALIZATION,
+                    () -> SerializedPlaylist.of(toJson(response), trackCount(response), maxAge));
+        }
+        SerializedPlaylist serialized = pipelineMetrics.timeStage(PipelineMetrics.SERIALIZATION,
+                () -> toCacheable(response, maxAge));
+        Key key = new Key(response.getCity(), response.getWeatherCondition(), response.getMood());
+        SerializedPlaylist existing = cache.asMap().putIfAbsent(key, serialized);
+        return existing != null ? existing : serialized;
+    }
+
+    /**
+     * Serializes a playlist without caching it.
+     *
+     * @param response The playlist to serialize
+     * @return The JSON bytes
+     */
+    public byte[] toJson(PlaylistResponse response) {
+        return playlistResponseEncoder.encodeToBytes(response);
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the serialized playlist cache.
+     *
+     * @return Snapshot of the serialized playlist cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the number of serialized playlists currently cached.
+     *
+     * @return Approximate serialized playlist cache size
+     */
+    public long getCacheSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Publishes the serialized playlist cache statistics as {@code cache.*} meters.
+     *
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "playlist-json");
+    }
+
+    /**
+     * Serializes a playlist for caching, with its tracks held in the track store.
+     */
+    private SerializedPlaylist toCacheable(PlaylistResponse response, Duration maxAge) {
+        List<PlaylistTrack> tracks = response.getTracks();
+        if (tracks == null || tracks.stream().anyMatch(Objects::isNull)) {
+            return SerializedPlaylist.of(toJson(response), trackCount(response), maxAge);
+        }
+        byte[][] frame = PlaylistResponseEncoder.encodeFrame(response);
+        return SerializedPlaylist.of(frame[0], trackStore.encode(tracks), frame[1], maxAge);
+    }
+
+    private static int trackCount(PlaylistResponse response) {
+        return response.getTracks() == null ? 0 : response.getTracks().size();
+    }
+
+    /**
+     * Computes a strong ETag from the first 128 bits of the SHA-256 of the body.
+     */
+    private static String eTagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Everything a playlist's JSON depends on apart from its tracks, which are
+     * those of the first playlist cached under the key.
+     */
+    private record Key(String city, String weatherCondition, String mood) {}
+
+    /**
+     * A playlist's JSON body with its ETag, the time it remains valid for and
+     * its number of tracks. A cached body is held as the JSON before and after
+     * its tracks plus the tracks' IDs in the track store, and is written out
+     * again on each {@link #json()}.
+     */
+    public static final class SerializedPlaylist {
+        private final byte[] head;
+        private final TrackStore.EncodedTracks tracks;
+        private final byte[] tail;
+        private final int length;
+        private final int trackCount;
+        private final String eTag;
+        private final Duration maxAge;
+
+        private SerializedPlaylist(byte[] head, TrackStore.EncodedTracks tracks, byte[] tail, int trackCount,
+                                   Duration maxAge) {
+            this.head = head;
+            this.tracks = tracks;
+            this.tail = tail;
+            this.length = tracks == null ? head.length : head.length + tracks.jsonLength() + tail.length;
+            this.trackCount = trackCount;
+            this.maxAge = maxAge;
+            this.eTag = eTagOf(json());
+        }
+
+        /**
+         * Wraps a complete JSON body.
+         */
+        static SerializedPlaylist of(byte[] json, int trackCount, Duration maxAge) {
+            return new SerializedPlaylist(json, null, null, trackCount, maxAge);
+        }
+
+        /**
+         * Wraps a JSON body split around its tracks, as written by
+         * {@link PlaylistResponseEncoder#encodeFrame}.
+         */
+        static SerializedPlaylist of(byte[] head, TrackStore.EncodedTracks tracks, byte[] tail, Duration maxAge) {
+            return new SerializedPlaylist(head, tracks, tail, tracks.size(), maxAge);
+        }
+
+        /**
+         * Returns the JSON body. The array must not be modified.
+         *
+         * @return The JSON bytes
+         */
+        public byte[] json() {
+            if (tracks == null) {
+                return head;
+            }
+            byte[] json = new byte[length];
+            System.arraycopy(head, 0, json, 0, head.length);
+            int offset = tracks.writeJson(json, head.length);
+            System.arraycopy(tail, 0, json, offset, tail.length);
+            return json;
+        }
+
+        public String eTag() {
+            return eTag;
+        }
+
+        public Duration maxAge() {
+            return maxAge;
+        }
+
+        public int trackCount() {
+            return trackCount;
+        }
+
+        /**
+         * Checks an If-None-Match header against this playlist's ETag.
+         * Weak comparison is used, as required for If-None-Match.
+         *
+         * @param ifNoneMatch The If-None-Match header value, or null
+         * @return True if the client already has this representation
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,66 +1,260 @@
 package com.jamcast.api.service;
 
+import com.jamcast.api.config.ApiConfig;
 import com.jamcast.api.dto.PlaylistRequest;
 import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistStreamEvent;
 import com.jamcast.api.dto.WeatherResponse;
 import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
 import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.jamcast.api.service.PlaylistResponseCache.SerializedPlaylist;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Main service class that orchestrates the playlist generation process.
  * Coordinates between WeatherService and SpotifyService to create weather-based playlists.
  */
 @Service
-public class PlaylistService {
+public class PlaylistService implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(PlaylistService.class);
 
     private final WeatherService weatherService;
     private final SpotifyService spotifyService;
+    private final ApiConfig apiConfig;
+    private final PipelineMetrics pipelineMetrics;
+    private final CityRequestTracker cityRequestTracker;
+    private final TrackStore trackStore;
+    private final PlaylistResponseCache playlistResponseCache;
+    private final Cache<String, CachedPlaylist> precomputedPlaylists;
 
     @Autowired
-    public PlaylistService(WeatherService weatherService, SpotifyService spotifyService) {
+    public PlaylistService(WeatherService weatherService, SpotifyService spotifyService, ApiConfig apiConfig,
+                           PipelineMetrics pipelineMetrics, CityRequestTracker cityRequestTracker,
+                           TrackStore trackStore, PlaylistResponseCache playlistResponseCache) {
         this.weatherService = weatherService;
         this.spotifyService = spotifyService;
+        this.apiConfig = apiConfig;
+        this.pipelineMetrics = pipelineMetrics;
+        this.cityRequestTracker = cityRequestTracker;
+        this.trackStore = trackStore;
+        this.playlistResponseCache = playlistResponseCache;
+
+        // A precomputed playlist expires together with the weather it was built from
+        this.precomputedPlaylists = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, CachedPlaylist>() {
+                    @Override
+                    public long expireAfterCreate(String city, CachedPlaylist value, long currentTime) {
+                        return value.maxAge().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String city, CachedPlaylist value, long currentTime,
+                                                  long currentDuration) {
+                        return value.maxAge().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String city, CachedPlaylist value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(apiConfig.getOpenweathermap().getCache().getMaximumSize())
+                .recordStats()
+                .build();
     }
 
     /**
      * Generates a playlist based on the weather conditions in a given city.
      * This is the main method that orchestrates the entire process.
+     * Playlists precomputed by the warm-up are served from memory without any upstream calls.
      * 
-     * @param request The playlist request containing the city name
+     * @param request The playlist request containing the city name or coordinates
      * @return Mono<PlaylistResponse> containing the generated playlist
      */
     public Mono<PlaylistResponse> generatePlaylist(PlaylistRequest request) {
-        String city = request.getCity();
-        logger.info("Starting playlist generation for city: {}", city);
+        return Mono.defer(() -> {
+            PlaylistRequestLog requestLog = new PlaylistRequestLog(describeLocation(request));
+
+            if (!request.hasCoordinates()) {
+                String city = request.getCity();
+                cityRequestTracker.recordRequest(city);
+
+                CachedPlaylist precomputed = precomputedPlaylists.getIfPresent(WeatherService.normalizeCity(city));
+                if (precomputed != null) {
+                    requestLog.servedPrecomputed(precomputed.weatherCondition(), precomputed.mood(),
+                            precomputed.tracks().size());
+                    requestLog.finish("ok", null);
+                    return Mono.just(materialize(precomputed, city));
+                }
+            }
+
+            logger.debug("Starting playlist generation for: {}", request);
+            return buildPlaylist(request, requestLog)
+                    .doOnSuccess(response -> requestLog.finish("ok", null))
+                    .doOnError(error -> requestLog.finish("error", error))
+                    .doOnCancel(() -> requestLog.finish("cancelled", null));
+        });
+    }
+
+    /**
+     * Generates a playlist and serializes it, with its ETag, for the HTTP response.
+     * While the request's weather is cached, a playlist already serialized for
+     * the same city, weather condition and mood is returned as is, before any
+     * generation work; the request is still counted and logged. Serialized
+     * playlists are cached until their weather expires, so repeated requests
+     * get the same tracks and ETag rather than a new catalog sample each time.
+     * 
+     * @param request The playlist request containing the city name or coordinates
+     * @return Mono<SerializedPlaylist> containing the playlist JSON and its ETag
+     */
+    public Mono<SerializedPlaylist> generateSerializedPlaylist(PlaylistRequest request) {
+        return Mono.defer(() -> {
+            WeatherLocation location = weatherService.locate(request);
+            WeatherResponse weather = weatherService.getCachedWeather(location);
+            if (weather != null) {
+                String weatherCondition = weather.getWeather().get(0).getMain();
+                String mood = weatherService.mapWeatherToMood(weather);
+                SerializedPlaylist serialized = playlistResponseCache.getIfPresent(
+                        displayCity(request, weather), weatherCondition, mood);
+                if (serialized != null) {
+                    if (!request.hasCoordinates()) {
+                        cityRequestTracker.recordRequest(request.getCity());
+                    }
+                    PlaylistRequestLog requestLog = new PlaylistRequestLog(describeLocation(request));
+                    requestLog.servedSerialized(weatherCondition, mood, serialized.trackCount());
+                    requestLog.finish("ok", null);
+                    return Mono.just(serialized);
+                }
+            }
+            return generatePlaylist(request).map(response ->
+                    playlistResponseCache.serialize(response, weatherService.getRemainingTtl(location)));
+        });
+    }
 
-        return weatherService.getWeatherForCity(city)
+    /**
+     * Returns whether a playlist request can be answered without upstream calls:
+     * its playlist is precomputed, or both its weather and the recommendations
+     * for the resulting mood are cached. Cache statistics are not affected.
+     * 
+     * @param request The playlist request containing the city name or coordinates
+     * @return True if the request can be served from memory
+     */
+    public boolean isCacheServable(PlaylistRequest request) {
+        if (!request.hasCoordinates()
+                && precomputedPlaylists.asMap().containsKey(WeatherService.normalizeCity(request.getCity()))) {
+            return true;
+        }
+        WeatherResponse weather = weatherService.getCachedWeather(weatherService.locate(request));
+        return weather != null && spotifyService.canServeFromCache(weatherService.mapWeatherToMood(weather));
+    }
+
+    /**
+     * Stores a freshly generated playlist for a city, so subsequent requests for the
+     * city are served from memory. The playlist is cached with its tracks encoded
+     * as {@link TrackStore} IDs, until the weather it was built from expires. The
+     * weather is taken from the cache, so callers refresh it first, normally in
+     * bulk through {@link WeatherService#refreshWeatherForCities}. A playlist built
+     * from weather that is not cached, such as the last known weather served
+     * during an outage, is returned but not stored.
+     * 
+     * @param city The city name to precompute a playlist for
+     * @return Mono<PlaylistResponse> containing the precomputed playlist, or empty if it was not stored
+     */
+    public Mono<PlaylistResponse> precomputePlaylist(String city) {
+        return Mono.defer(() -> buildPlaylist(new PlaylistRequest(city), new PlaylistRequestLog(city)))
+                .flatMap(response -> {
+                    WeatherLocation location = WeatherLocation.city(city);
+                    WeatherResponse weather = weatherService.getCachedWeather(location);
+                    Duration remainingTtl = weatherService.getRemainingTtl(location);
+                    if (weather == null || remainingTtl.isZero()
+                            || !Objects.equals(weather.getWeather().get(0).getMain(), response.getWeatherCondition())) {
+                        logger.debug("Not precomputing {}: its playlist was built from stale weather", city);
+                        return Mono.empty();
+                    }
+                    precomputedPlaylists.put(WeatherService.normalizeCity(city),
+                            new CachedPlaylist(response.getWeatherCondition(), response.getMood(),
+                                    trackStore.encode(response.getTracks()), remainingTtl));
+                    return Mono.just(response);
+                });
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the precomputed playlist cache.
+     * 
+     * @return Snapshot of the precomputed playlist cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return precomputedPlaylists.stats();
+    }
+
+    /**
+     * Returns the number of cities with a precomputed playlist.
+     * 
+     * @return Approximate precomputed playlist cache size
+     */
+    public long getCacheSize() {
+        return precomputedPlaylists.estimatedSize();
+    }
+
+    /**
+     * Publishes the precomputed playlist cache statistics as {@code cache.*} meters.
+     * 
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, precomputedPlaylists, "playlists");
+    }
+
+    /**
+     * Runs the weather, mood, Spotify and conversion pipeline for a request.
+     * 
+     * @param request The playlist request containing the city name or coordinates
+     * @param requestLog Collects stage timings for the summary log line
+     * @return Mono<PlaylistResponse> containing the generated playlist
+     */
+    private Mono<PlaylistResponse> buildPlaylist(PlaylistRequest request, PlaylistRequestLog requestLog) {
+        return fetchWeather(request)
                 .flatMap(weatherResponse -> {
-                    logger.info("Weather retrieved for {}: {}", city, 
-                            weatherResponse.getWeather().get(0).getMain());
-                    
-                    String mood = weatherService.mapWeatherToMood(weatherResponse);
-                    String playlistTitle = weatherService.generatePlaylistTitle(weatherResponse, city);
+                    String city = displayCity(request, weatherResponse);
                     String weatherCondition = weatherResponse.getWeather().get(0).getMain();
-                    
-                    logger.info("Mapped weather to mood: {} for playlist: {}", mood, playlistTitle);
-                    
-                    return spotifyService.getRecommendationsByMood(mood)
+                    String mood = mapMood(weatherResponse);
+                    String playlistTitle = weatherService.generatePlaylistTitle(mood, city);
+                    requestLog.weatherResolved(weatherCondition, mood);
+
+                    logger.debug("Mapped weather '{}' to mood: {} for playlist: {}", 
+                            weatherCondition, mood, playlistTitle);
+
+                    return fetchRecommendations(mood)
                             .map(spotifyResponse -> {
-                                List<PlaylistTrack> tracks = spotifyService.convertToPlaylistTracks(
-                                        spotifyResponse.getTracks());
-                                
-                                logger.info("Generated playlist with {} tracks for {} ({} mood)", 
-                                        tracks.size(), city, mood);
-                                
+                                requestLog.recommendationsResolved();
+                                List<PlaylistTrack> tracks = convertTracks(spotifyResponse);
+                                requestLog.tracksConverted(tracks.size());
+
                                 return new PlaylistResponse(
                                         playlistTitle,
                                         weatherCondition,
@@ -69,8 +263,193 @@ public class PlaylistService {
                                         city
                                 );
                             });
-                })
-                .doOnError(error -> logger.error("Error generating playlist for {}: {}", 
-                        city, error.getMessage()));
+                });
+    }
+
+    /**
+     * Rebuilds a precomputed playlist for the city spelling used in the request.
+     * The tracks are a view over the shared {@link TrackStore} entries, not copies.
+     * 
+     * @param precomputed The precomputed playlist
+     * @param city The city name as supplied by the client
+     * @return The playlist response
+     */
+    private PlaylistResponse materialize(CachedPlaylist precomputed, String city) {
+        return new PlaylistResponse(
+                weatherService.generatePlaylistTitle(precomputed.mood(), city),
+                precomputed.weatherCondition(),
+                precomputed.mood(),
+                trackStore.decode(precomputed.tracks()),
+                city);
     }
+
+    /**
+     * Generates a playlist as a stream of events.
+     * The header event is emitted as soon as the weather is known, before Spotify
+     * is called, and each track follows as soon as it is converted.
+     * 
+     * @param request The playlist request containing the city name or coordinates
+     * @return Flux<PlaylistStreamEvent> with one header event followed by track events
+     */
+    public Flux<PlaylistStreamEvent> streamPlaylist(PlaylistRequest request) {
+        return Flux.defer(() -> {
+            PlaylistRequestLog requestLog = new PlaylistRequestLog(describeLocation(request));
+            if (!request.hasCoordinates()) {
+                cityRequestTracker.recordRequest(request.getCity());
+            }
+
+            logger.debug("Starting streamed playlist generation for: {}", request);
+            return fetchWeather(request)
+                    .flatMapMany(weatherResponse -> {
+                        String city = displayCity(request, weatherResponse);
+                        String weatherCondition = weatherResponse.getWeather().get(0).getMain();
+                        String mood = mapMood(weatherResponse);
+                        requestLog.weatherResolved(weatherCondition, mood);
+                        PlaylistStreamEvent header = PlaylistStreamEvent.header(
+                                weatherService.generatePlaylistTitle(mood, city),
+                                weatherCondition,
+                                mood,
+                                city);
+
+                        return Flux.concat(
+                                Mono.just(header),
+                                fetchRecommendations(mood).flatMapMany(spotifyResponse -> {
+                                    requestLog.recommendationsResolved();
+                                    SpotifyTrack[] tracks = spotifyResponse.getTracks();
+                                    return Flux.fromArray(tracks)
+                                            .map(spotifyTrack -> PlaylistStreamEvent.track(
+                                                    spotifyService.convertToPlaylistTrack(spotifyTrack)))
+                                            .doOnComplete(() -> requestLog.tracksConverted(tracks.length));
+                                }));
+                    })
+                    .doOnComplete(() -> requestLog.finish("ok", null))
+                    .doOnError(error -> {
+                        logger.error("Error streaming playlist for {}: {}",
+                                describeLocation(request), error.getMessage());
+                        requestLog.finish("error", error);
+                    })
+                    .doOnCancel(() -> requestLog.finish("cancelled", null));
+        });
+    }
+
+    /**
+     * Generates playlists for many cities in one pass.
+     * Cities are deduplicated by normalized name, weather is fetched with bounded
+     * concurrency, and cities are grouped by mood so Spotify is asked at most once
+     * per mood. Playlists are emitted as soon as their mood's tracks are available.
+     * Cities whose weather or recommendations cannot be fetched are skipped.
+     * 
+     * @param cities The city names to generate playlists for
+     * @return Flux<PlaylistResponse> emitting one playlist per distinct city
+     */
+    public Flux<PlaylistResponse> generatePlaylists(List<String> cities) {
+        Map<String, String> distinctCities = new LinkedHashMap<>();
+        for (String city : cities) {
+            distinctCities.putIfAbsent(WeatherService.normalizeCity(city), city);
+        }
+        logger.debug("Starting batch playlist generation for {} cities ({} distinct)", 
+                cities.size(), distinctCities.size());
+
+        return Flux.fromIterable(distinctCities.values())
+                .flatMap(city -> fetchWeather(city)
+                                .map(weatherResponse -> new CityWeather(city, weatherResponse))
+                                .onErrorResume(error -> {
+                                    logger.warn("Skipping {} in batch, weather lookup failed: {}", 
+                                            city, error.getMessage());
+                                    return Mono.empty();
+                                }),
+                        apiConfig.getBatch().getWeatherConcurrency())
+                .groupBy(cityWeather -> mapMood(cityWeather.weather()))
+                // The number of distinct moods is small and fixed, so every group can be consumed at once
+                .flatMap(moodGroup -> fetchRecommendations(moodGroup.key())
+                        .map(this::convertTracks)
+                        .flatMapMany(tracks -> moodGroup.map(cityWeather -> new PlaylistResponse(
+                                weatherService.generatePlaylistTitle(moodGroup.key(), cityWeather.city()),
+                                cityWeather.weather().getWeather().get(0).getMain(),
+                                moodGroup.key(),
+                                tracks,
+                                cityWeather.city())))
+                        .onErrorResume(error -> {
+                            logger.warn("Skipping {} mood cities in batch, recommendations failed: {}", 
+                                    moodGroup.key(), error.getMessage());
+                            return moodGroup.thenMany(Flux.empty());
+                        }), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Resolves the weather for a city, timed as the weather fetch stage.
+     */
+    private Mono<WeatherResponse> fetchWeather(String city) {
+        return pipelineMetrics.timeStage(PipelineMetrics.WEATHER_FETCH, weatherService.getWeatherForCity(city));
+    }
+
+    /**
+     * Resolves the weather for a request's city or coordinates, timed as the weather fetch stage.
+     */
+    private Mono<WeatherResponse> fetchWeather(PlaylistRequest request) {
+        return pipelineMetrics.timeStage(PipelineMetrics.WEATHER_FETCH,
+                weatherService.getWeather(weatherService.locate(request)));
+    }
+
+    /**
+     * Chooses the city name shown in a playlist: the requested city if given,
+     * otherwise the place OpenWeatherMap reported for the coordinates.
+     */
+    private static String displayCity(PlaylistRequest request, WeatherResponse weatherResponse) {
+        if (request.getCity() != null && !request.getCity().isBlank()) {
+            return request.getCity();
+        }
+        if (weatherResponse.getCityName() != null && !weatherResponse.getCityName().isBlank()) {
+            return weatherResponse.getCityName();
+        }
+        return describeLocation(request);
+    }
+
+    /**
+     * Describes a request's location for logs: its city, or its coordinates.
+     */
+    private static String describeLocation(PlaylistRequest request) {
+        return request.hasCoordinates()
+                ? String.format(Locale.ROOT, "%.4f,%.4f", request.getLatitude(), request.getLongitude())
+                : request.getCity();
+    }
+
+    /**
+     * Maps weather to a mood, timed as the mood mapping stage.
+     */
+    private String mapMood(WeatherResponse weatherResponse) {
+        return pipelineMetrics.timeStage(PipelineMetrics.MOOD_MAPPING,
+                () -> weatherService.mapWeatherToMood(weatherResponse));
+    }
+
+    /**
+     * Resolves Spotify recommendations for a mood, timed as the Spotify fetch stage.
+     */
+    private Mono<SpotifyRecommendationsResponse> fetchRecommendations(String mood) {
+        return pipelineMetrics.timeStage(PipelineMetrics.SPOTIFY_FETCH, spotifyService.getRecommendationsByMood(mood));
+    }
+
+    /**
+     * Converts recommended tracks for the response, timed as the track conversion stage.
+     * Tracks are converted through {@link SpotifyService#convertToPlaylistTrack}, so
+     * playlists sharing a track, whether from cached recommendations or catalog
+     * samples, share its instance. The list is read-only.
+     */
+    private List<PlaylistTrack> convertTracks(SpotifyRecommendationsResponse spotifyResponse) {
+        return pipelineMetrics.timeStage(PipelineMetrics.TRACK_CONVERSION,
+                () -> Collections.unmodifiableList(
+                        spotifyService.convertToPlaylistTracks(spotifyResponse.getTracks())));
+    }
+
+    /**
+     * A precomputed playlist without its city-specific title, holding track IDs
+     * rather than tracks, and the time it remains valid for.
+     */
+    private record CachedPlaylist(String weatherCondition, String mood, TrackStore.EncodedTracks tracks,
+                                  Duration maxAge) {}
+
+    /**
+     * Pairs a requested city with its resolved weather during batch generation.
+     */
+    private record CityWeather(String city, WeatherResponse weather) {}
 } 
\ No newline at end of file
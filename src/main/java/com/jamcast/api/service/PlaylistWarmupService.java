@@ -0,0 +1,142 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.cache.SharedCache;
+import com.jamcast.api.config.ApiConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service class that keeps playlists for the busiest cities precomputed.
+ * On startup and then every {@code api.warmup.interval}, playlists are generated
+ * for the configured cities plus the most requested cities observed at runtime,
+ * with bounded concurrency and a cap on upstream requests per second. The weather
+ * for all of them is refreshed first, in batches through the OpenWeatherMap group
+ * endpoint, and the playlists are then built from the refreshed cache.
+ * With a shared cache, only the replica holding the warm-up lease refreshes the
+ * weather each interval; the others build their playlists from the weather it
+ * published. Cycles run as a reactive chain rather than on Spring's scheduler
+ * thread, so a slow warm-up never holds up the other scheduled tasks.
+ */
+@Service
+@ConditionalOnProperty(prefix = "api.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PlaylistWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistWarmupService.class);
+
+    private final PlaylistService playlistService;
+    private final WeatherService weatherService;
+    private final CityRequestTracker cityRequestTracker;
+    private final SharedCache sharedCache;
+    private final ApiConfig.Warmup warmupConfig;
+    private Disposable cycles;
+
+    @Autowired
+    public PlaylistWarmupService(PlaylistService playlistService, WeatherService weatherService,
+                                 CityRequestTracker cityRequestTracker, SharedCache sharedCache,
+                                 ApiConfig apiConfig) {
+        this.playlistService = playlistService;
+        this.weatherService = weatherService;
+        this.cityRequestTracker = cityRequestTracker;
+        this.sharedCache = sharedCache;
+        this.warmupConfig = apiConfig.getWarmup();
+    }
+
+    /**
+     * Starts warming up, with a first cycle right away. Cycles never overlap:
+     * the next one starts {@code api.warmup.interval} after the previous one finished.
+     */
+    @PostConstruct
+    public void start() {
+        cycles = Mono.defer(this::warmUp)
+                .repeatWhen(finished -> finished.delayElements(warmupConfig.getInterval()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (cycles != null) {
+            cycles.dispose();
+        }
+    }
+
+    /**
+     * Runs one warm-up cycle. A failed cycle is logged, and does not stop the
+     * cycles that follow.
+     *
+     * @return The number of playlists precomputed
+     */
+    public Mono<Long> warmUp() {
+        long start = System.nanoTime();
+        return Mono.fromCallable(this::selectCities)
+                .flatMap(cities -> cities.isEmpty() ? Mono.just(0L) : precomputeAll(cities)
+                        .doOnNext(warmed -> logger.info("Warm-up precomputed {} of {} playlists in {} ms",
+                                warmed, cities.size(), (System.nanoTime() - start) / 1_000_000)))
+                .onErrorResume(error -> {
+                    logger.warn("Warm-up cycle failed: {}", error.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    /**
+     * Refreshes the weather for the given cities in bulk, unless another replica
+     * holds the warm-up lease, then precomputes their playlists. Cities whose
+     * playlist cannot be generated are skipped.
+     *
+     * @param cities The city names to warm up
+     * @return The number of playlists precomputed
+     */
+    private Mono<Long> precomputeAll(Collection<String> cities) {
+        Duration spacing = Duration.ofNanos(1_000_000_000L / Math.max(1, warmupConfig.getRatePerSecond()));
+
+        Mono<Long> refresh = sharedCache.tryLease("warmup", warmupConfig.getInterval())
+                .flatMap(leased -> {
+                    if (!leased) {
+                        logger.debug("Warm-up weather refresh left to the replica holding the lease");
+                        return Mono.just(0L);
+                    }
+                    return weatherService.refreshWeatherForCities(cities, warmupConfig.getConcurrency(), spacing)
+                            .doOnNext(refreshed -> logger.debug("Warm-up refreshed weather for {} of {} cities",
+                                    refreshed, cities.size()));
+                });
+
+        return refresh
+                .thenMany(Flux.fromIterable(cities))
+                .flatMap(city -> playlistService.precomputePlaylist(city)
+                                .onErrorResume(error -> {
+                                    logger.warn("Skipping {} in warm-up: {}", city, error.getMessage());
+                                    return Mono.empty();
+                                }),
+                        warmupConfig.getConcurrency())
+                .count();
+    }
+
+    /**
+     * Combines the configured cities with the most requested ones, deduplicated
+     * by normalized name.
+     *
+     * @return City names to warm up, configured cities first
+     */
+    private Collection<String> selectCities() {
+        Map<String, String> cities = new LinkedHashMap<>();
+        for (String city : warmupConfig.getCities()) {
+            cities.putIfAbsent(WeatherService.normalizeCity(city), city);
+        }
+        for (String city : cityRequestTracker.topCitiesAndDecay(warmupConfig.getTopRequested())) {
+            cities.putIfAbsent(WeatherService.normalizeCity(city), city);
+        }
+        return cities.values();
+    }
+}
@@ -0,0 +1,261 @@
+package com.jamcast.api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for Spotify recommendations responses.
+ * Body buffers are fed to Jackson's non-blocking parser as they arrive, without
+ * being copied or aggregated, and only the fields a playlist needs are kept:
+ * each track's ID, name, Spotify URL, first artist name and album name.
+ * Images, markets, seeds and every other field are skipped token by token
+ * without being materialized.
+ */
+public final class RecommendationsDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public RecommendationsDecoder() {
+        this(new JsonFactory());
+    }
+
+    public RecommendationsDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Decodes a recommendations body. Every buffer is released once parsed.
+     *
+     * @param body The response body buffers
+     * @return SpotifyRecommendationsResponse holding slim tracks and no seeds
+     */
+    public Mono<SpotifyRecommendationsResponse> decode(Flux<DataBuffer> body) {
+        return Mono.using(
+                this::newParser,
+                parser -> body
+                        .doOnNext(buffer -> {
+                            try {
+                                parser.feed(buffer);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        .then(Mono.fromCallable(parser::finish)),
+                TrackParser::close);
+    }
+
+    /**
+     * Decodes a complete recommendations body held in memory.
+     *
+     * @param json The response body
+     * @return SpotifyRecommendationsResponse holding slim tracks and no seeds
+     */
+    public SpotifyRecommendationsResponse decode(byte[] json) {
+        try (TrackParser parser = newParser()) {
+            parser.feed(ByteBuffer.wrap(json));
+            return parser.finish();
+        }
+    }
+
+    private TrackParser newParser() {
+        try {
+            return new TrackParser(jsonFactory.createNonBlockingByteBufferParser());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create a non-blocking JSON parser", e);
+        }
+    }
+
+    /**
+     * Incremental parser state. Nesting is tracked as the number of open
+     * containers; the field names that lead to the wanted values are
+     * remembered per level, and uninteresting containers are skipped by
+     * counting nesting until they close.
+     */
+    private static final class TrackParser implements AutoCloseable {
+
+        private static final int ROOT = 1;
+        private static final int TRACKS = 2;
+        private static final int TRACK = 3;
+        private static final int TRACK_CHILD = 4;
+        private static final int ARTIST = 5;
+
+        private final JsonParser parser;
+        private final String[] fieldNames = new String[ARTIST + 1];
+        private final List<SpotifyTrack> tracks = new ArrayList<>();
+        private int depth;
+        private int skipUntil = -1;
+        private boolean started;
+
+        private SpotifyTrack track;
+        private boolean artistSeen;
+
+        TrackParser(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        void feed(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    feed(iterator.next());
+                }
+            }
+        }
+
+        void feed(ByteBuffer buffer) {
+            try {
+                ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer);
+                drain();
+            } catch (IOException e) {
+                throw new DecodingException("Malformed Spotify recommendations: " + e.getMessage(), e);
+            }
+        }
+
+        SpotifyRecommendationsResponse finish() {
+            try {
+                parser.getNonBlockingInputFeeder().endOfInput();
+                drain();
+            } catch (IOException e) {
+                throw new DecodingException("Malformed Spotify recommendations: " + e.getMessage(), e);
+            }
+            if (!started || depth != 0) {
+                throw new DecodingException("Truncated Spotify recommendations response");
+            }
+            SpotifyRecommendationsResponse response = new SpotifyRecommendationsResponse();
+            response.setTracks(tracks.toArray(new SpotifyTrack[0]));
+            return response;
+        }
+
+        @Override
+        public void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // Nothing is held open beyond the fed buffers
+            }
+        }
+
+        /**
+         * Consumes every token available from the input fed so far.
+         */
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                switch (token) {
+                    case START_OBJECT, START_ARRAY -> enter(token);
+                    case END_OBJECT, END_ARRAY -> exit();
+                    case FIELD_NAME -> {
+                        if (skipUntil < 0 && depth < fieldNames.length) {
+                            fieldNames[depth] = parser.currentName();
+                        }
+                    }
+                    case VALUE_STRING -> {
+                        if (skipUntil < 0) {
+                            value();
+                        }
+                    }
+                    default -> {
+                        // Numbers, booleans and nulls are never needed
+                    }
+                }
+            }
+        }
+
+        private void enter(JsonToken token) {
+            int parent = depth++;
+            if (skipUntil >= 0) {
+                return;
+            }
+            boolean wanted = switch (parent) {
+                case 0 -> {
+                    started = true;
+                    yield token == JsonToken.START_OBJECT;
+                }
+                case ROOT -> token == JsonToken.START_ARRAY && "tracks".equals(fieldNames[ROOT]);
+                case TRACKS -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        track = new SpotifyTrack();
+                        artistSeen = false;
+                        fieldNames[TRACK] = null;
+                        yield true;
+                    }
+                    yield false;
+                }
+                case TRACK -> token == JsonToken.START_OBJECT
+                        ? "external_urls".equals(fieldNames[TRACK]) || "album".equals(fieldNames[TRACK])
+                        : "artists".equals(fieldNames[TRACK]);
+                case TRACK_CHILD -> {
+                    if (token == JsonToken.START_OBJECT && "artists".equals(fieldNames[TRACK]) && !artistSeen) {
+                        artistSeen = true;
+                        yield true;
+                    }
+                    yield false;
+                }
+                default -> false;
+            };
+            if (wanted) {
+                if (depth < fieldNames.length) {
+                    fieldNames[depth] = null;
+                }
+            } else {
+                skipUntil = parent;
+            }
+        }
+
+        private void exit() {
+            depth--;
+            if (skipUntil >= 0) {
+                if (depth == skipUntil) {
+                    skipUntil = -1;
+                }
+                return;
+            }
+            if (depth == TRACKS && track != null) {
+                tracks.add(track);
+                track = null;
+            }
+        }
+
+        private void value() throws IOException {
+            if (track == null) {
+                return;
+            }
+            String field = fieldNames[depth];
+            if (depth == TRACK) {
+                if ("id".equals(field)) {
+                    track.setId(parser.getText());
+                } else if ("name".equals(field)) {
+                    track.setName(parser.getText());
+                }
+            } else if (depth == TRACK_CHILD) {
+                String parentField = fieldNames[TRACK];
+                if ("external_urls".equals(parentField) && "spotify".equals(field)) {
+                    SpotifyTrack.ExternalUrls externalUrls = new SpotifyTrack.ExternalUrls();
+                    externalUrls.setSpotify(parser.getText());
+                    track.setExternalUrls(externalUrls);
+                } else if ("album".equals(parentField) && "name".equals(field)) {
+                    SpotifyTrack.SpotifyAlbum album = new SpotifyTrack.SpotifyAlbum();
+                    album.setName(parser.getText());
+                    track.setAlbum(album);
+                }
+            } else if (depth == ARTIST && "name".equals(field)) {
+                SpotifyTrack.SpotifyArtist artist = new SpotifyTrack.SpotifyArtist();
+                artist.setName(parser.getText());
+                track.setArtists(new SpotifyTrack.SpotifyArtist[] {artist});
+            }
+        }
+    }
+}
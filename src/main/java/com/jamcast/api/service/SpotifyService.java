@@ -1,57 +1,404 @@
 package com.jamcast.api.service;
 
+import com.jamcast.api.cache.SharedCache;
 import com.jamcast.api.config.ApiConfig;
 import com.jamcast.api.dto.SpotifyRecommendationsResponse;
 import com.jamcast.api.dto.SpotifyTrack;
 import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.resilience.UpstreamGuard;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Service class for handling Spotify-related operations.
  * Responsible for calling Spotify API and processing track recommendations.
+ * Every recommendations response is harvested into the local {@link TrackCatalog};
+ * once a mood's pool is large enough, playlists are sampled from it and Spotify
+ * is only called in the background to top the pool up.
  */
 @Service
-public class SpotifyService {
+public class SpotifyService implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(SpotifyService.class);
 
+    /**
+     * The number of tracks requested from Spotify and sampled from the catalog.
+     */
+    private static final int RECOMMENDATIONS_LIMIT = 20;
+
+    /**
+     * The shared cache namespace recommendations are stored under, keyed by seed genres.
+     */
+    static final String SHARED_NAMESPACE = "recommendations";
+
+    /**
+     * The most converted tracks kept; enough for every track in a full catalog.
+     */
+    private static final long MAX_PLAYLIST_TRACKS = 50_000;
+
     private final WebClient webClient;
     private final ApiConfig apiConfig;
+    private final UpstreamGuard guard;
+    private final SpotifyTokenManager tokenManager;
+    private final TrackCatalog trackCatalog;
+    private final SharedCache sharedCache;
+    private final RecommendationsDecoder recommendationsDecoder = new RecommendationsDecoder();
+    private final WriteExpiry<String, SpotifyRecommendationsResponse> recommendationsExpiry;
+    private final AsyncLoadingCache<String, SpotifyRecommendationsResponse> recommendationsCache;
+    private final Cache<String, SpotifyRecommendationsResponse> lastKnownRecommendations;
+    private final Cache<String, PlaylistTrack> playlistTracks;
 
     @Autowired
-    public SpotifyService(WebClient webClient, ApiConfig apiConfig) {
+    public SpotifyService(@Qualifier("spotifyWebClient") WebClient webClient, ApiConfig apiConfig,
+                          @Qualifier("spotifyGuard") UpstreamGuard guard, SpotifyTokenManager tokenManager,
+                          TrackCatalog trackCatalog, SharedCache sharedCache) {
         this.webClient = webClient;
         this.apiConfig = apiConfig;
+        this.guard = guard;
+        this.tokenManager = tokenManager;
+        this.trackCatalog = trackCatalog;
+        this.sharedCache = sharedCache;
+
+        ApiConfig.Cache cacheConfig = apiConfig.getSpotify().getCache();
+        // Expires like expireAfterWrite, but lets restored entries keep their remaining lifetime
+        this.recommendationsExpiry = new WriteExpiry<>(cacheConfig.getTtl());
+        Caffeine<String, SpotifyRecommendationsResponse> builder = Caffeine.newBuilder()
+                .expireAfter(recommendationsExpiry)
+                .maximumSize(cacheConfig.getMaximumSize())
+                .recordStats();
+        if (cacheConfig.getRefreshAfter() != null) {
+            builder.refreshAfterWrite(cacheConfig.getRefreshAfter());
+        }
+        this.recommendationsCache = builder.buildAsync(
+                (seedGenres, executor) -> loadRecommendations(seedGenres).toFuture());
+        this.lastKnownRecommendations = cacheConfig.getStaleTtl() == null ? null : Caffeine.newBuilder()
+                .expireAfterWrite(cacheConfig.getStaleTtl())
+                .maximumSize(cacheConfig.getMaximumSize())
+                .build();
+        this.playlistTracks = Caffeine.newBuilder()
+                .maximumSize(MAX_PLAYLIST_TRACKS)
+                .build();
+
+        sharedCache.onUpdate(SHARED_NAMESPACE, this::replaceFromSharedCache);
     }
 
     /**
-     * Gets track recommendations from Spotify based on mood.
+     * Gets track recommendations based on mood.
+     * If the local catalog holds enough tracks for the mood, a random sample of
+     * them is returned without waiting on Spotify. Otherwise responses are cached
+     * per seed genre set, locally and in the shared cache. Once an entry is older than the configured refresh
+     * interval it keeps being served while a single background call to Spotify
+     * replaces it. If Spotify fails or its circuit is open after the entry has
+     * expired, the last known recommendations are served, and failing those a
+     * sample of whatever the catalog holds.
      * 
      * @param mood The mood to base recommendations on
      * @return SpotifyRecommendationsResponse containing recommended tracks
      */
     public Mono<SpotifyRecommendationsResponse> getRecommendationsByMood(String mood) {
-        String url = buildRecommendationsUrl(mood);
-        logger.info("Fetching Spotify recommendations for mood: {}", mood);
+        String seedGenres = mapMoodToSeedGenres(mood);
+
+        if (trackCatalog.isEnabled()) {
+            SpotifyTrack[] sampled = trackCatalog.sample(seedGenres, RECOMMENDATIONS_LIMIT, RECOMMENDATIONS_LIMIT);
+            if (sampled != null) {
+                topUpCatalog(seedGenres);
+                return Mono.just(recommendationsOf(sampled));
+            }
+        }
+
+        // Cancellation by one subscriber must not cancel the shared in-flight call
+        return Mono.fromFuture(recommendationsCache.get(seedGenres), true)
+                .onErrorResume(error -> fallbackRecommendations(seedGenres, error));
+    }
+
+    /**
+     * Returns whether recommendations for a mood can be served without calling
+     * Spotify, from the catalog or from the cache. Cache statistics are not affected.
+     * 
+     * @param mood The mood to base recommendations on
+     * @return True if recommendations are available locally
+     */
+    public boolean canServeFromCache(String mood) {
+        String seedGenres = mapMoodToSeedGenres(mood);
+        if (trackCatalog.isEnabled() && trackCatalog.size(seedGenres) >= RECOMMENDATIONS_LIMIT) {
+            return true;
+        }
+        CompletableFuture<SpotifyRecommendationsResponse> cached = recommendationsCache.asMap().get(seedGenres);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the recommendations cache.
+     * 
+     * @return Snapshot of the recommendations cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return recommendationsCache.synchronous().stats();
+    }
+
+    /**
+     * Returns the number of seed genre sets currently held in the recommendations cache.
+     * 
+     * @return Approximate recommendations cache size
+     */
+    public long getCacheSize() {
+        return recommendationsCache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Returns every cached recommendations entry with its remaining time to
+     * live, for {@link CacheSnapshot}.
+     * 
+     * @return The cached entries, keyed by seed genres
+     */
+    public List<CacheSnapshot.Entry<SpotifyRecommendationsResponse>> snapshotCache() {
+        Policy.VarExpiration<String, SpotifyRecommendationsResponse> expiration = expiration();
+        List<CacheSnapshot.Entry<SpotifyRecommendationsResponse>> entries = new ArrayList<>();
+        recommendationsCache.synchronous().asMap().forEach((seedGenres, response) ->
+                expiration.getExpiresAfter(seedGenres).ifPresent(expiresIn ->
+                        entries.add(new CacheSnapshot.Entry<>(seedGenres, response, expiresIn))));
+        return entries;
+    }
+
+    /**
+     * Puts recommendations restored by {@link CacheSnapshot}, or read from the
+     * shared cache, back into the cache.
+     * The entry expires after its remaining time to live, capped at the configured TTL.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @param response The cached recommendations
+     * @param expiresIn The remaining time to live
+     */
+    public void restoreCache(String seedGenres, SpotifyRecommendationsResponse response, Duration expiresIn) {
+        Duration ttl = apiConfig.getSpotify().getCache().getTtl();
+        expiration().put(seedGenres, response, expiresIn.compareTo(ttl) < 0 ? expiresIn : ttl);
+        remember(seedGenres, response);
+    }
+
+    /**
+     * Publishes the recommendations cache statistics as {@code cache.*} meters.
+     * 
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, recommendationsCache, "recommendations");
+    }
+
+    /**
+     * Loads recommendations missing from the local cache: from the shared cache
+     * if another replica already fetched them, otherwise from Spotify.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @return SpotifyRecommendationsResponse containing recommended tracks
+     */
+    private Mono<SpotifyRecommendationsResponse> loadRecommendations(String seedGenres) {
+        return sharedCache.get(SHARED_NAMESPACE, seedGenres, SpotifyRecommendationsResponse.class)
+                .map(entry -> {
+                    // Kept locally only for what is left of its TTL
+                    recommendationsExpiry.expireWriteOf(seedGenres, entry.value(), remainingTtl(entry));
+                    remember(seedGenres, entry.value());
+                    return entry.value();
+                })
+                .switchIfEmpty(Mono.defer(() -> fetchRecommendations(seedGenres)));
+    }
+
+    /**
+     * Replaces cached recommendations with the newer ones another replica
+     * stored in the shared cache, for what is left of their TTL. Seed genres
+     * this replica does not hold are left alone; if the shared entry cannot be
+     * read, the local one is dropped instead.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     */
+    private void replaceFromSharedCache(String seedGenres) {
+        if (!recommendationsCache.asMap().containsKey(seedGenres)) {
+            return;
+        }
+        sharedCache.get(SHARED_NAMESPACE, seedGenres, SpotifyRecommendationsResponse.class)
+                .doOnNext(entry -> restoreCache(seedGenres, entry.value(), remainingTtl(entry)))
+                .switchIfEmpty(Mono.fromRunnable(() -> recommendationsCache.synchronous().invalidate(seedGenres)))
+                .subscribe();
+    }
+
+    /**
+     * Returns how much longer shared recommendations may be served locally.
+     * They are shared only until they are due for a refresh, so their age is
+     * derived from the shared lifetime and deducted from the local TTL.
+     * 
+     * @param entry Recommendations read from the shared cache
+     * @return The remaining local time to live
+     */
+    private Duration remainingTtl(SharedCache.Entry<SpotifyRecommendationsResponse> entry) {
+        Duration age = sharedTtl().minus(entry.expiresIn());
+        return apiConfig.getSpotify().getCache().getTtl().minus(age.isNegative() ? Duration.ZERO : age);
+    }
+
+    /**
+     * Calls Spotify for recommendations seeded by the given genres, bypassing the cache.
+     * The call is guarded by the Spotify timeout, bulkhead, retry and circuit
+     * breaker policy. If Spotify rejects the access token, a new token is
+     * obtained and the call is retried once. The response is published to the
+     * shared cache.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @return SpotifyRecommendationsResponse containing recommended tracks
+     */
+    private Mono<SpotifyRecommendationsResponse> fetchRecommendations(String seedGenres) {
+        String url = buildRecommendationsUrl(seedGenres);
+        logger.debug("Fetching Spotify recommendations for genres: {}", seedGenres);
         
-        return webClient.get()
+        Mono<SpotifyRecommendationsResponse> call = tokenManager.getAccessToken()
+                .flatMap(token -> requestRecommendations(url, token)
+                        .onErrorResume(WebClientResponseException.Unauthorized.class, error -> {
+                            if (!tokenManager.isClientCredentialsEnabled()) {
+                                return Mono.error(error);
+                            }
+                            logger.warn("Spotify rejected the access token, retrying with a new one");
+                            tokenManager.invalidate(token);
+                            return tokenManager.getAccessToken()
+                                    .flatMap(freshToken -> requestRecommendations(url, freshToken));
+                        }));
+
+        return guard.protect(call)
+                .doOnSuccess(response -> {
+                    remember(seedGenres, response);
+                    share(seedGenres, response);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Successfully retrieved {} tracks for genres: {}", 
+                                response.getTracks().length, seedGenres);
+                    }
+                })
+                .doOnError(error -> logger.error("Error fetching Spotify recommendations for genres {}: {}", 
+                        seedGenres, error.getMessage()));
+    }
+
+    private Policy.VarExpiration<String, SpotifyRecommendationsResponse> expiration() {
+        return recommendationsCache.synchronous().policy().expireVariably().orElseThrow();
+    }
+
+    /**
+     * Records recommendations as the last known ones for their seed genres and
+     * harvests their tracks into the catalog.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @param response The recommendations just obtained
+     */
+    private void remember(String seedGenres, SpotifyRecommendationsResponse response) {
+        if (lastKnownRecommendations != null) {
+            lastKnownRecommendations.put(seedGenres, response);
+        }
+        if (trackCatalog.isEnabled()) {
+            trackCatalog.harvest(seedGenres, response.getTracks());
+        }
+    }
+
+    /**
+     * Publishes freshly fetched recommendations to the shared cache for the
+     * other replicas, for as long as they are served before being refreshed.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @param response The recommendations just fetched
+     */
+    private void share(String seedGenres, SpotifyRecommendationsResponse response) {
+        sharedCache.put(SHARED_NAMESPACE, seedGenres, response, sharedTtl());
+    }
+
+    private Duration sharedTtl() {
+        ApiConfig.Cache cacheConfig = apiConfig.getSpotify().getCache();
+        return cacheConfig.getRefreshAfter() != null ? cacheConfig.getRefreshAfter() : cacheConfig.getTtl();
+    }
+
+    /**
+     * Fetches more tracks for a catalog pool in the background if it needs topping up.
+     * Failures are already logged by {@link #fetchRecommendations(String)}.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     */
+    private void topUpCatalog(String seedGenres) {
+        if (!trackCatalog.tryStartTopUp(seedGenres)) {
+            return;
+        }
+        logger.debug("Topping up track catalog for genres: {}", seedGenres);
+        fetchRecommendations(seedGenres)
+                .doFinally(signal -> trackCatalog.finishTopUp(seedGenres))
+                .subscribe(response -> {}, error -> {});
+    }
+
+    /**
+     * Sends a single recommendations request with the given access token.
+     * The body is decoded as it streams in, keeping only the track fields
+     * playlists use; see {@link RecommendationsDecoder}.
+     * 
+     * @param url The recommendations URL
+     * @param accessToken The Bearer token to authorize with
+     * @return SpotifyRecommendationsResponse containing recommended tracks
+     */
+    private Mono<SpotifyRecommendationsResponse> requestRecommendations(String url, String accessToken) {
+        return recommendationsDecoder.decode(webClient.get()
                 .uri(url)
-                .header("Authorization", "Bearer " + apiConfig.getSpotify().getAccessToken())
+                .header("Authorization", "Bearer " + accessToken)
                 .retrieve()
-                .bodyToMono(SpotifyRecommendationsResponse.class)
-                .doOnSuccess(response -> logger.info("Successfully retrieved {} tracks for mood: {}", 
-                        response.getTracks().length, mood))
-                .doOnError(error -> logger.error("Error fetching Spotify recommendations for mood {}: {}", 
-                        mood, error.getMessage()));
+                .bodyToFlux(DataBuffer.class));
+    }
+
+    /**
+     * Falls back to the last recommendations successfully fetched for a seed genre set.
+     * 
+     * @param seedGenres Comma-separated seed genres
+     * @param error The upstream failure
+     * @return The last known recommendations or catalog tracks, or the original error if there are none
+     */
+    private Mono<SpotifyRecommendationsResponse> fallbackRecommendations(String seedGenres, Throwable error) {
+        SpotifyRecommendationsResponse stale = lastKnownRecommendations == null
+                ? null : lastKnownRecommendations.getIfPresent(seedGenres);
+        if (stale == null) {
+            SpotifyTrack[] sampled = trackCatalog.isEnabled()
+                    ? trackCatalog.sample(seedGenres, RECOMMENDATIONS_LIMIT, 1) : null;
+            if (sampled == null) {
+                return Mono.error(error);
+            }
+            logger.warn("Serving {} catalog tracks for {} after upstream failure: {}",
+                    sampled.length, seedGenres, error.getMessage());
+            return Mono.just(recommendationsOf(sampled));
+        }
+        logger.warn("Serving last known recommendations for {} after upstream failure: {}",
+                seedGenres, error.getMessage());
+        return Mono.just(stale);
+    }
+
+    /**
+     * Wraps tracks taken from the catalog as a recommendations response.
+     * 
+     * @param tracks The sampled tracks
+     * @return SpotifyRecommendationsResponse without seeds
+     */
+    private static SpotifyRecommendationsResponse recommendationsOf(SpotifyTrack[] tracks) {
+        SpotifyRecommendationsResponse response = new SpotifyRecommendationsResponse();
+        response.setTracks(tracks);
+        return response;
     }
 
     /**
@@ -68,11 +415,22 @@ public class SpotifyService {
 
     /**
      * Converts a single Spotify track to a PlaylistTrack.
+     * Conversions are remembered by Spotify track ID, so a track returns the same
+     * PlaylistTrack instance whichever recommendations or catalog sample it comes
+     * from, and the response encoder reuses its pre-encoded JSON. The instance is
+     * shared and must not be modified.
      * 
      * @param spotifyTrack The Spotify track to convert
      * @return PlaylistTrack object
      */
-    private PlaylistTrack convertToPlaylistTrack(SpotifyTrack spotifyTrack) {
+    public PlaylistTrack convertToPlaylistTrack(SpotifyTrack spotifyTrack) {
+        if (spotifyTrack.getId() == null) {
+            return toPlaylistTrack(spotifyTrack);
+        }
+        return playlistTracks.get(spotifyTrack.getId(), id -> toPlaylistTrack(spotifyTrack));
+    }
+
+    private static PlaylistTrack toPlaylistTrack(SpotifyTrack spotifyTrack) {
         String artistName = spotifyTrack.getArtists() != null && spotifyTrack.getArtists().length > 0 
                 ? spotifyTrack.getArtists()[0].getName() 
                 : "Unknown Artist";
@@ -112,14 +470,13 @@ public class SpotifyService {
     /**
      * Builds the Spotify recommendations API URL with parameters.
      * 
-     * @param mood The mood for recommendations
+     * @param seedGenres Comma-separated seed genres for recommendations
      * @return Complete API URL
      */
-    private String buildRecommendationsUrl(String mood) {
-        String seedGenres = mapMoodToSeedGenres(mood);
-        
-        return String.format("%s/recommendations?seed_genres=%s&limit=20&target_valence=0.7",
+    String buildRecommendationsUrl(String seedGenres) {
+        return String.format("%s/recommendations?seed_genres=%s&limit=%d&target_valence=0.7",
                 apiConfig.getSpotify().getBaseUrl(),
-                seedGenres);
+                seedGenres,
+                RECOMMENDATIONS_LIMIT);
     }
 } 
\ No newline at end of file
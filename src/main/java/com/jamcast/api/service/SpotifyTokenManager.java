@@ -0,0 +1,219 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.SpotifyTokenResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class for obtaining Spotify access tokens.
+ * When a client id and secret are configured, tokens are obtained with the
+ * client credentials flow and refreshed in the background ahead of expiry, so
+ * requests only wait for a token on startup or after Spotify rejects one.
+ * Otherwise the static access token from configuration is used.
+ */
+@Service
+public class SpotifyTokenManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpotifyTokenManager.class);
+
+    private final WebClient webClient;
+    private final ApiConfig.Spotify spotifyConfig;
+    private final AtomicReference<AccessToken> currentToken = new AtomicReference<>();
+
+    private CompletableFuture<AccessToken> inFlightRefresh;
+    private Disposable scheduledRefresh;
+    private volatile boolean stopped;
+
+    @Autowired
+    public SpotifyTokenManager(@Qualifier("spotifyWebClient") WebClient webClient, ApiConfig apiConfig) {
+        this.webClient = webClient;
+        this.spotifyConfig = apiConfig.getSpotify();
+    }
+
+    /**
+     * Fetches the first token in the background so it is ready before the first request.
+     */
+    @PostConstruct
+    public void start() {
+        if (isClientCredentialsEnabled()) {
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * Cancels any scheduled background refresh.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+    }
+
+    /**
+     * Returns whether tokens are obtained with the client credentials flow.
+     *
+     * @return True if a client id and secret are configured
+     */
+    public boolean isClientCredentialsEnabled() {
+        return StringUtils.hasText(spotifyConfig.getClientId()) && StringUtils.hasText(spotifyConfig.getClientSecret());
+    }
+
+    /**
+     * Returns a valid access token. A cached token is returned immediately; a
+     * token close to expiry is returned too while a refresh runs in the background.
+     * Only a missing or expired token makes the caller wait, and concurrent
+     * callers share a single token request.
+     *
+     * @return The access token to send as a Bearer credential
+     */
+    public Mono<String> getAccessToken() {
+        if (!isClientCredentialsEnabled()) {
+            return Mono.just(String.valueOf(spotifyConfig.getAccessToken()));
+        }
+
+        AccessToken token = currentToken.get();
+        long now = System.nanoTime();
+        if (token != null && !token.isExpired(now)) {
+            if (token.isDueForRefresh(now)) {
+                refreshInBackground();
+            }
+            return Mono.just(token.value());
+        }
+        return refresh().map(AccessToken::value);
+    }
+
+    /**
+     * Discards a token that Spotify rejected, so the next caller obtains a new one.
+     * A token that has already been replaced is left alone.
+     *
+     * @param rejectedToken The token Spotify answered with 401
+     */
+    public void invalidate(String rejectedToken) {
+        currentToken.updateAndGet(token -> token != null && token.value().equals(rejectedToken) ? null : token);
+    }
+
+    /**
+     * Joins the in-flight token request, starting one if none is running.
+     *
+     * @return The new token
+     */
+    private Mono<AccessToken> refresh() {
+        CompletableFuture<AccessToken> pending;
+        synchronized (this) {
+            pending = inFlightRefresh;
+            if (pending == null) {
+                CompletableFuture<AccessToken> refreshed = new CompletableFuture<>();
+                inFlightRefresh = refreshed;
+                pending = refreshed;
+                // Callers get the token only once it is stored, so their invalidate() applies to it
+                requestToken().toFuture().whenComplete((token, error) -> {
+                    onRefreshComplete(token, error);
+                    if (token != null) {
+                        refreshed.complete(token);
+                    } else {
+                        refreshed.completeExceptionally(error);
+                    }
+                });
+            }
+        }
+
+        // Cancellation by one caller must not cancel the shared token request
+        return Mono.fromFuture(pending, true);
+    }
+
+    private void refreshInBackground() {
+        refresh().subscribe(token -> {}, error -> {});
+    }
+
+    /**
+     * Stores a new token and schedules its refresh, or schedules a retry after a failure.
+     * A failed refresh keeps the current token for as long as it remains valid.
+     */
+    private void onRefreshComplete(AccessToken token, Throwable error) {
+        if (token != null) {
+            currentToken.set(token);
+            scheduleRefresh(Duration.ofNanos(token.refreshAt() - System.nanoTime()));
+        } else {
+            logger.warn("Failed to obtain Spotify access token, retrying in {}: {}",
+                    spotifyConfig.getTokenRetryInterval(), error.getMessage());
+            scheduleRefresh(spotifyConfig.getTokenRetryInterval());
+        }
+        synchronized (this) {
+            inFlightRefresh = null;
+        }
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (stopped) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+        scheduledRefresh = Mono.delay(delay.isNegative() ? Duration.ZERO : delay)
+                .subscribe(tick -> refreshInBackground());
+    }
+
+    /**
+     * Calls the Spotify Accounts service for a client credentials token.
+     *
+     * @return The new token with its expiry and refresh deadlines
+     */
+    private Mono<AccessToken> requestToken() {
+        logger.debug("Requesting Spotify access token");
+
+        return webClient.post()
+                .uri(spotifyConfig.getTokenUrl())
+                .headers(headers -> headers.setBasicAuth(spotifyConfig.getClientId(), spotifyConfig.getClientSecret()))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("grant_type", "client_credentials"))
+                .retrieve()
+                .bodyToMono(SpotifyTokenResponse.class)
+                .timeout(spotifyConfig.getResilience().getTimeout())
+                .map(this::toAccessToken)
+                .doOnSuccess(token -> logger.info("Obtained Spotify access token"));
+    }
+
+    private AccessToken toAccessToken(SpotifyTokenResponse response) {
+        long now = System.nanoTime();
+        Duration lifetime = Duration.ofSeconds(response.getExpiresIn());
+        Duration refreshAfter = lifetime.minus(spotifyConfig.getTokenRefreshSkew());
+        if (refreshAfter.compareTo(lifetime.dividedBy(2)) < 0) {
+            // Short-lived tokens are refreshed at half-life rather than immediately
+            refreshAfter = lifetime.dividedBy(2);
+        }
+        return new AccessToken(response.getAccessToken(), now + lifetime.toNanos(), now + refreshAfter.toNanos());
+    }
+
+    /**
+     * An access token with its expiry and proactive refresh deadlines, in {@link System#nanoTime()} units.
+     */
+    private record AccessToken(String value, long expiresAt, long refreshAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        boolean isDueForRefresh(long now) {
+            return now - refreshAt >= 0;
+        }
+    }
+}
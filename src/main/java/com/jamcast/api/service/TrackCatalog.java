@@ -0,0 +1,278 @@
+package com.jamcast.api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.SpotifyTrack;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local catalog of Spotify tracks harvested from recommendations responses.
+ * Tracks are pooled per seed genre set, which is one pool per mood, so a
+ * playlist can be assembled by sampling the pool instead of calling Spotify.
+ * Each pool keeps the most recently harvested tracks up to a configured size.
+ * If a path is configured, the catalog is loaded from it on startup and
+ * written back periodically and on shutdown, so it survives restarts.
+ */
+@Component
+public class TrackCatalog implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackCatalog.class);
+
+    public static final String TRACKS_GAUGE = "jamcast.catalog.tracks";
+
+    private final ObjectMapper objectMapper;
+    private final ApiConfig.Catalog catalogConfig;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    @Autowired
+    public TrackCatalog(ObjectMapper objectMapper, ApiConfig apiConfig) {
+        this.objectMapper = objectMapper;
+        this.catalogConfig = apiConfig.getSpotify().getCatalog();
+    }
+
+    /**
+     * Loads the persisted catalog, if there is one. A missing or unreadable
+     * file leaves the catalog empty.
+     */
+    @PostConstruct
+    public void load() {
+        Path path = persistencePath();
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            Map<String, SpotifyTrack[]> persisted = objectMapper.readValue(path.toFile(),
+                    new TypeReference<Map<String, SpotifyTrack[]>>() {});
+            persisted.forEach((seedGenres, tracks) -> pool(seedGenres).addAll(tracks));
+            logger.info("Loaded {} tracks for {} seed genre sets from {}", size(), pools.size(), path);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable track catalog {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the catalog to disk if it changed since the last write.
+     * The file is replaced atomically, so a crash never leaves a partial catalog.
+     */
+    @Scheduled(initialDelayString = "#{@apiConfig.spotify.catalog.persistInterval.toMillis()}",
+            fixedDelayString = "#{@apiConfig.spotify.catalog.persistInterval.toMillis()}")
+    @PreDestroy
+    public synchronized void persist() {
+        Path path = persistencePath();
+        if (path == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        Map<String, SpotifyTrack[]> snapshot = new LinkedHashMap<>();
+        pools.forEach((seedGenres, pool) -> snapshot.put(seedGenres, pool.snapshot));
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Persisted {} tracks to {}", size(), path);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Failed to persist track catalog to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether playlists should be assembled from the catalog.
+     *
+     * @return True if the catalog is enabled
+     */
+    public boolean isEnabled() {
+        return catalogConfig.isEnabled();
+    }
+
+    /**
+     * Adds the tracks of a recommendations response to the pool of its seed genres.
+     * Tracks already in the pool are refreshed; the oldest tracks are dropped
+     * once the pool is full.
+     *
+     * @param seedGenres Comma-separated seed genres the tracks were recommended for
+     * @param tracks The recommended tracks
+     */
+    public void harvest(String seedGenres, SpotifyTrack[] tracks) {
+        if (tracks != null && tracks.length > 0) {
+            pool(seedGenres).addAll(tracks);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Samples distinct random tracks from the pool of a seed genre set.
+     *
+     * @param seedGenres Comma-separated seed genres
+     * @param count The number of tracks wanted
+     * @param minimum The fewest tracks the pool must hold to be sampled
+     * @return Up to {@code count} tracks in random order, or null if the pool holds fewer than {@code minimum}
+     */
+    public SpotifyTrack[] sample(String seedGenres, int count, int minimum) {
+        Pool pool = pools.get(seedGenres);
+        SpotifyTrack[] tracks = pool == null ? null : pool.snapshot;
+        if (tracks == null || tracks.length < Math.max(1, minimum)) {
+            return null;
+        }
+        return sample(tracks, Math.min(count, tracks.length));
+    }
+
+    /**
+     * Returns the number of tracks in the pool of a seed genre set.
+     *
+     * @param seedGenres Comma-separated seed genres
+     * @return Pool size, zero if there is no pool
+     */
+    public int size(String seedGenres) {
+        Pool pool = pools.get(seedGenres);
+        return pool == null ? 0 : pool.snapshot.length;
+    }
+
+    /**
+     * Claims the right to top up a pool from Spotify. A pool is topped up while
+     * it holds fewer than {@code min-tracks-per-mood} tracks, by one call at a
+     * time and at most once per {@code top-up-interval}.
+     *
+     * @param seedGenres Comma-separated seed genres
+     * @return True if the caller should fetch more tracks for the pool
+     */
+    public boolean tryStartTopUp(String seedGenres) {
+        return pool(seedGenres).tryStartTopUp(catalogConfig.getMinTracksPerMood(),
+                catalogConfig.getTopUpInterval().toNanos());
+    }
+
+    /**
+     * Releases a top-up claimed with {@link #tryStartTopUp(String)}.
+     *
+     * @param seedGenres Comma-separated seed genres
+     */
+    public void finishTopUp(String seedGenres) {
+        pool(seedGenres).finishTopUp();
+    }
+
+    /**
+     * Returns the number of tracks across all pools.
+     *
+     * @return Total catalog size
+     */
+    public long size() {
+        return pools.values().stream().mapToLong(pool -> pool.snapshot.length).sum();
+    }
+
+    /**
+     * Publishes the catalog size as a gauge.
+     *
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(TRACKS_GAUGE, this, TrackCatalog::size)
+                .description("Tracks held in the local catalog")
+                .register(registry);
+    }
+
+    private Pool pool(String seedGenres) {
+        return pools.computeIfAbsent(seedGenres, key -> new Pool(catalogConfig.getMaxTracksPerMood()));
+    }
+
+    private Path persistencePath() {
+        return StringUtils.hasText(catalogConfig.getPath()) ? Path.of(catalogConfig.getPath()) : null;
+    }
+
+    /**
+     * Picks {@code count} distinct tracks with Floyd's algorithm and shuffles them.
+     */
+    private static SpotifyTrack[] sample(SpotifyTrack[] tracks, int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> chosen = new HashSet<>();
+        for (int j = tracks.length - count; j < tracks.length; j++) {
+            int candidate = random.nextInt(j + 1);
+            chosen.add(chosen.contains(candidate) ? j : candidate);
+        }
+        SpotifyTrack[] sampled = new SpotifyTrack[count];
+        int i = 0;
+        for (int index : chosen) {
+            sampled[i++] = tracks[index];
+        }
+        for (int k = count - 1; k > 0; k--) {
+            int swap = random.nextInt(k + 1);
+            SpotifyTrack track = sampled[k];
+            sampled[k] = sampled[swap];
+            sampled[swap] = track;
+        }
+        return sampled;
+    }
+
+    /**
+     * The tracks harvested for one seed genre set. Writers synchronize on the
+     * pool and publish an array snapshot that readers sample without locking.
+     */
+    private static class Pool {
+        private final int maxTracks;
+        private final LinkedHashMap<String, SpotifyTrack> tracks = new LinkedHashMap<>();
+        private volatile SpotifyTrack[] snapshot = new SpotifyTrack[0];
+        private boolean toppingUp;
+        private long lastTopUp;
+        private boolean toppedUp;
+
+        Pool(int maxTracks) {
+            this.maxTracks = Math.max(1, maxTracks);
+        }
+
+        synchronized void addAll(SpotifyTrack[] harvested) {
+            for (SpotifyTrack track : harvested) {
+                if (track == null || track.getId() == null) {
+                    continue;
+                }
+                tracks.remove(track.getId());
+                tracks.put(track.getId(), track);
+            }
+            var eldest = tracks.keySet().iterator();
+            while (tracks.size() > maxTracks) {
+                eldest.next();
+                eldest.remove();
+            }
+            snapshot = tracks.values().toArray(new SpotifyTrack[0]);
+        }
+
+        synchronized boolean tryStartTopUp(int minTracks, long intervalNanos) {
+            long now = System.nanoTime();
+            if (toppingUp || snapshot.length >= minTracks || (toppedUp && now - lastTopUp < intervalNanos)) {
+                return false;
+            }
+            toppingUp = true;
+            toppedUp = true;
+            lastTopUp = now;
+            return true;
+        }
+
+        synchronized void finishTopUp() {
+            toppingUp = false;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.codec.PlaylistResponseEncoder;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of distinct playlist tracks, so cached playlists can hold int
+ * track IDs instead of their own copies of each track.
+ * Each track is stored once per generation as a compact immutable record: its
+ * fields, with artist and album names shared between tracks through a string
+ * pool, and its pre-encoded JSON fragment. Precomputed playlists are rebuilt
+ * from the fields, and serialized playlists are written from the fragments. A
+ * generation holds at most {@code maxTracks} tracks; once it is full, a new
+ * empty generation is started and tracks still in use are stored again as
+ * playlists are re-encoded. Encoded playlists keep a reference to the
+ * generation their IDs point into, so IDs never need to be reused and the store
+ * itself only references the current generation. An old generation becomes
+ * unreachable as soon as the last cached playlist referring to it expires.
+ * Cached playlists live no longer than the weather TTL, so at most a full
+ * generation plus the one being filled are reachable at any time.
+ */
+@Component
+public class TrackStore implements MeterBinder {
+
+    public static final String TRACKS_GAUGE = "jamcast.trackstore.tracks";
+
+    /**
+     * Tracks per generation; matches the encoder's track fragment cache.
+     */
+    static final int DEFAULT_MAX_TRACKS = 50_000;
+
+    private final int maxTracks;
+    private Generation current = new Generation(0);
+
+    public TrackStore() {
+        this(DEFAULT_MAX_TRACKS);
+    }
+
+    TrackStore(int maxTracks) {
+        this.maxTracks = maxTracks;
+    }
+
+    /**
+     * Encodes a playlist's tracks as track IDs, storing tracks not seen before.
+     * A playlist is always encoded within a single generation.
+     *
+     * @param playlist The tracks to encode
+     * @return The track IDs, in playlist order, together with their generation
+     */
+    public synchronized EncodedTracks encode(List<PlaylistTrack> playlist) {
+        if (current.size + playlist.size() > maxTracks && current.size > 0) {
+            current = new Generation(current.number + 1);
+        }
+        int[] encoded = new int[playlist.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = current.intern(playlist.get(i));
+        }
+        // Taken after interning, as the generation's table may have grown
+        return new EncodedTracks(current.number, current.tracks, encoded);
+    }
+
+    /**
+     * Rebuilds the tracks of an encoded playlist. The tracks are new instances
+     * sharing the stored, pooled strings, so modifying them does not affect the store.
+     *
+     * @param encoded Tracks returned by {@link #encode(List)}
+     * @return The tracks, in playlist order, as a read-only list
+     */
+    public List<PlaylistTrack> decode(EncodedTracks encoded) {
+        PlaylistTrack[] tracks = new PlaylistTrack[encoded.trackIds.length];
+        for (int i = 0; i < tracks.length; i++) {
+            StoredTrack stored = encoded.table[encoded.trackIds[i]];
+            tracks[i] = new PlaylistTrack(stored.name(), stored.artist(), stored.spotifyUrl(), stored.albumName());
+        }
+        return List.of(tracks);
+    }
+
+    /**
+     * Returns the number of distinct tracks in the current generation.
+     *
+     * @return Track count
+     */
+    public synchronized int size() {
+        return current.size;
+    }
+
+    /**
+     * Returns the number of the current generation, starting at zero.
+     *
+     * @return Generation number
+     */
+    synchronized int generation() {
+        return current.number;
+    }
+
+    /**
+     * Publishes the number of stored tracks as a gauge.
+     *
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(TRACKS_GAUGE, this, TrackStore::size)
+                .description("Distinct tracks in the current track store generation")
+                .register(registry);
+    }
+
+    /**
+     * A playlist encoded as track IDs, and the generation table they index.
+     */
+    public static final class EncodedTracks {
+        private final int generation;
+        private final StoredTrack[] table;
+        private final int[] trackIds;
+
+        private EncodedTracks(int generation, StoredTrack[] table, int[] trackIds) {
+            this.generation = generation;
+            this.table = table;
+            this.trackIds = trackIds;
+        }
+
+        /**
+         * Returns the number of tracks in the playlist.
+         *
+         * @return Track count
+         */
+        public int size() {
+            return trackIds.length;
+        }
+
+        /**
+         * Returns the length of the tracks' JSON fragments joined by commas.
+         *
+         * @return Length in bytes
+         */
+        public int jsonLength() {
+            int length = Math.max(0, trackIds.length - 1);
+            for (int trackId : trackIds) {
+                length += table[trackId].json().length;
+            }
+            return length;
+        }
+
+        /**
+         * Writes the tracks' JSON fragments joined by commas, without brackets.
+         *
+         * @param target The array to write into
+         * @param offset The position to start writing at
+         * @return The position after the last byte written
+         */
+        public int writeJson(byte[] target, int offset) {
+            for (int i = 0; i < trackIds.length; i++) {
+                if (i > 0) {
+                    target[offset++] = ',';
+                }
+                byte[] json = table[trackIds[i]].json();
+                System.arraycopy(json, 0, target, offset, json.length);
+                offset += json.length;
+            }
+            return offset;
+        }
+
+        /**
+         * Returns the number of the generation the track IDs point into.
+         *
+         * @return Generation number
+         */
+        int generation() {
+            return generation;
+        }
+    }
+
+    /**
+     * One generation of stored tracks. Accessed only while holding the store's lock;
+     * entries below {@code size} never change once written.
+     */
+    private static final class Generation {
+        private final int number;
+        private final Map<TrackKey, Integer> ids = new HashMap<>();
+        private final Map<String, String> namePool = new HashMap<>();
+        private StoredTrack[] tracks = new StoredTrack[256];
+        private int size;
+
+        Generation(int number) {
+            this.number = number;
+        }
+
+        int intern(PlaylistTrack track) {
+            TrackKey key = new TrackKey(track.getName(), track.getArtist(), track.getSpotifyUrl(),
+                    track.getAlbumName());
+            Integer id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            StoredTrack stored = new StoredTrack(track.getName(), pooled(track.getArtist()),
+                    track.getSpotifyUrl(), pooled(track.getAlbumName()), PlaylistResponseEncoder.encodeTrack(track));
+            if (size == tracks.length) {
+                tracks = Arrays.copyOf(tracks, size * 2);
+            }
+            tracks[size] = stored;
+            ids.put(key, size);
+            return size++;
+        }
+
+        private String pooled(String name) {
+            return name == null ? null : namePool.computeIfAbsent(name, n -> n);
+        }
+    }
+
+    /**
+     * Identity of a track: all four of its fields.
+     */
+    private record TrackKey(String name, String artist, String spotifyUrl, String albumName) {}
+
+    /**
+     * A stored track: its fields and its JSON fragment, as written by
+     * {@link PlaylistResponseEncoder#encodeTrack}. The fragment is never modified.
+     */
+    private record StoredTrack(String name, String artist, String spotifyUrl, String albumName, byte[] json) {}
+}
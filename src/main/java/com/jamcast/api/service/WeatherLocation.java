@@ -0,0 +1,78 @@
+package com.jamcast.api.service;
+
+/**
+ * A place weather is looked up and cached for: either a city name or a geohash
+ * cell covering a set of nearby coordinates. The {@link #toString()} form used
+ * for shared cache and snapshot keys always names its kind, so no city name a
+ * client sends can be mistaken for a cell.
+ *
+ * @param kind Whether the location is a city or a geohash cell
+ * @param key The normalized city name or the geohash
+ */
+public record WeatherLocation(Kind kind, String key) {
+
+    public enum Kind { CITY, GEOHASH }
+
+    private static final String CITY_PREFIX = "city:";
+    private static final String GEOHASH_PREFIX = "geohash:";
+
+    /**
+     * Creates the location for a city name, normalized so spelling variants share a cache entry.
+     *
+     * @param city The city name as supplied by the client
+     * @return The city location
+     */
+    public static WeatherLocation city(String city) {
+        return new WeatherLocation(Kind.CITY, WeatherService.normalizeCity(city));
+    }
+
+    /**
+     * Creates the location for the geohash cell containing a position.
+     *
+     * @param latitude Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @param precision Geohash length; longer means smaller cells
+     * @return The cell location
+     */
+    public static WeatherLocation cell(double latitude, double longitude, int precision) {
+        return new WeatherLocation(Kind.GEOHASH, Geohash.encode(latitude, longitude, precision));
+    }
+
+    /**
+     * Parses a location from its {@link #toString()} form.
+     *
+     * @param value A city key prefixed with {@code city:}, or a geohash prefixed with {@code geohash:}
+     * @return The location
+     * @throws IllegalArgumentException If the value has neither prefix, or names an invalid geohash
+     */
+    public static WeatherLocation parse(String value) {
+        if (value.startsWith(CITY_PREFIX)) {
+            return new WeatherLocation(Kind.CITY, value.substring(CITY_PREFIX.length()));
+        }
+        if (value.startsWith(GEOHASH_PREFIX)) {
+            String geohash = value.substring(GEOHASH_PREFIX.length());
+            if (!Geohash.isValid(geohash)) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            return new WeatherLocation(Kind.GEOHASH, geohash);
+        }
+        throw new IllegalArgumentException("Not a weather location: " + value);
+    }
+
+    /**
+     * Returns the center of a geohash cell, which is what upstream lookups use.
+     *
+     * @return The cell center as {latitude, longitude}
+     */
+    public double[] center() {
+        if (kind != Kind.GEOHASH) {
+            throw new IllegalStateException("Not a geohash cell: " + key);
+        }
+        return Geohash.decodeCenter(key);
+    }
+
+    @Override
+    public String toString() {
+        return (kind == Kind.CITY ? CITY_PREFIX : GEOHASH_PREFIX) + key;
+    }
+}
@@ -1,30 +1,96 @@
 package com.jamcast.api.service;
 
+import com.jamcast.api.cache.SharedCache;
 import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistRequest;
+import com.jamcast.api.dto.WeatherGroupResponse;
 import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.resilience.UpstreamGuard;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
 /**
  * Service class for handling weather-related operations.
  * Responsible for calling OpenWeatherMap API and processing weather data.
  */
 @Service
-public class WeatherService {
+public class WeatherService implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(WeatherService.class);
 
+    /**
+     * The most city IDs OpenWeatherMap accepts in one group call.
+     */
+    private static final int MAX_GROUP_SIZE = 20;
+
+    /**
+     * The shared cache namespace weather is stored under, keyed by location.
+     */
+    static final String SHARED_NAMESPACE = "weather";
+
     private final WebClient webClient;
     private final ApiConfig apiConfig;
+    private final UpstreamGuard guard;
+    private final WriteExpiry<WeatherLocation, WeatherResponse> weatherExpiry;
+    private final AsyncCache<WeatherLocation, WeatherResponse> weatherCache;
+    private final Cache<WeatherLocation, WeatherResponse> lastKnownWeather;
+    private final Cache<WeatherLocation, Long> cityIds;
+    private final SharedCache sharedCache;
 
     @Autowired
-    public WeatherService(WebClient webClient, ApiConfig apiConfig) {
+    public WeatherService(@Qualifier("weatherWebClient") WebClient webClient, ApiConfig apiConfig,
+                          @Qualifier("weatherGuard") UpstreamGuard guard, SharedCache sharedCache) {
         this.webClient = webClient;
         this.apiConfig = apiConfig;
+        this.guard = guard;
+        this.sharedCache = sharedCache;
+
+        ApiConfig.Cache cacheConfig = apiConfig.getOpenweathermap().getCache();
+        // Expires like expireAfterWrite, but lets restored entries keep their remaining lifetime
+        this.weatherExpiry = new WriteExpiry<>(cacheConfig.getTtl());
+        this.weatherCache = Caffeine.newBuilder()
+                .expireAfter(weatherExpiry)
+                .maximumSize(cacheConfig.getMaximumSize())
+                .recordStats()
+                .buildAsync();
+        this.lastKnownWeather = cacheConfig.getStaleTtl() == null ? null : Caffeine.newBuilder()
+                .expireAfterWrite(cacheConfig.getStaleTtl())
+                .maximumSize(cacheConfig.getMaximumSize())
+                .build();
+        this.cityIds = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaximumSize())
+                .build();
+
+        sharedCache.onUpdate(SHARED_NAMESPACE, this::replaceFromSharedCache);
     }
 
     /**
@@ -34,16 +100,411 @@ public class WeatherService {
      * @return WeatherResponse containing weather information
      */
     public Mono<WeatherResponse> getWeatherForCity(String city) {
-        String url = buildWeatherUrl(city);
-        logger.info("Fetching weather data for city: {}", city);
+        return getWeather(WeatherLocation.city(city));
+    }
+
+    /**
+     * Fetches current weather data for a position. Positions are bucketed into
+     * geohash cells, so nearby clients share one cache entry and upstream call.
+     * 
+     * @param latitude Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @return WeatherResponse containing weather information for the position's cell
+     */
+    public Mono<WeatherResponse> getWeatherForCoordinates(double latitude, double longitude) {
+        return getWeather(locate(latitude, longitude));
+    }
+
+    /**
+     * Returns the location a playlist request's weather is cached under: the
+     * geohash cell of its coordinates if present, otherwise its city.
+     * 
+     * @param request The playlist request
+     * @return The city or cell location
+     */
+    public WeatherLocation locate(PlaylistRequest request) {
+        return request.hasCoordinates()
+                ? locate(request.getLatitude(), request.getLongitude())
+                : WeatherLocation.city(request.getCity());
+    }
+
+    /**
+     * Returns the geohash cell a position is cached under.
+     * 
+     * @param latitude Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @return The cell location
+     */
+    public WeatherLocation locate(double latitude, double longitude) {
+        return WeatherLocation.cell(latitude, longitude, apiConfig.getOpenweathermap().getGeohashPrecision());
+    }
+
+    /**
+     * Fetches current weather data for a city or geohash cell.
+     * Responses are cached per location, and concurrent misses for the same
+     * location share a single upstream call. A local miss is looked up in the
+     * shared cache before OpenWeatherMap is called. If OpenWeatherMap fails or its
+     * circuit is open, the last known weather for the location is served instead.
+     * 
+     * @param location The city or cell to get weather for
+     * @return WeatherResponse containing weather information
+     */
+    public Mono<WeatherResponse> getWeather(WeatherLocation location) {
+        CompletableFuture<WeatherResponse> weather = weatherCache.get(location,
+                (key, executor) -> loadWeather(key).toFuture());
+
+        // Cancellation by one subscriber must not cancel the shared in-flight call
+        return Mono.fromFuture(weather, true)
+                .onErrorResume(error -> fallbackWeather(location, error));
+    }
+
+    /**
+     * Returns a location's cached weather without calling OpenWeatherMap or
+     * waiting for a call in flight. Cache statistics are not affected.
+     * 
+     * @param location The city or cell
+     * @return The cached weather, or null if none is cached
+     */
+    public WeatherResponse getCachedWeather(WeatherLocation location) {
+        CompletableFuture<WeatherResponse> cached = weatherCache.asMap().get(location);
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally() ? cached.join() : null;
+    }
+
+    /**
+     * Fetches fresh weather for a city and replaces the cached entry once it arrives.
+     * Readers keep getting the previous entry while the refresh is in flight.
+     * 
+     * @param city The city name to refresh weather for
+     * @return The freshly fetched WeatherResponse
+     */
+    public Mono<WeatherResponse> refreshWeatherForCity(String city) {
+        return refreshWeather(WeatherLocation.city(city));
+    }
+
+    /**
+     * Refreshes the weather for many cities with as few upstream calls as possible.
+     * Cities whose OpenWeatherMap ID is known are refreshed through the group
+     * endpoint, up to {@code group-size} cities per call; the others are fetched
+     * one by one, which records their ID for the next refresh. Cached entries are
+     * replaced as responses arrive. Failed calls are logged and skipped.
+     * 
+     * @param cities The city names to refresh
+     * @param concurrency The maximum number of upstream calls in flight
+     * @param spacing The minimum delay between starting two upstream calls
+     * @return The number of cities refreshed
+     */
+    public Mono<Long> refreshWeatherForCities(Collection<String> cities, int concurrency, Duration spacing) {
+        Map<Long, List<WeatherLocation>> locationsById = new LinkedHashMap<>();
+        Set<WeatherLocation> unresolved = new LinkedHashSet<>();
+        for (String city : cities) {
+            WeatherLocation location = WeatherLocation.city(city);
+            Long cityId = cityIds.getIfPresent(location);
+            if (cityId == null) {
+                unresolved.add(location);
+            } else {
+                List<WeatherLocation> locations = locationsById.computeIfAbsent(cityId, id -> new ArrayList<>());
+                if (!locations.contains(location)) {
+                    locations.add(location);
+                }
+            }
+        }
+
+        List<Mono<Integer>> calls = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(locationsById.keySet());
+        int groupSize = Math.max(1, Math.min(MAX_GROUP_SIZE, apiConfig.getOpenweathermap().getGroupSize()));
+        for (int i = 0; i < ids.size(); i += groupSize) {
+            calls.add(refreshGroup(ids.subList(i, Math.min(i + groupSize, ids.size())), locationsById));
+        }
+        for (WeatherLocation location : unresolved) {
+            calls.add(refreshWeather(location).thenReturn(1));
+        }
+        logger.debug("Refreshing weather for {} cities with {} group and {} single calls",
+                cities.size(), calls.size() - unresolved.size(), unresolved.size());
+
+        return Flux.fromIterable(calls)
+                .delayElements(spacing)
+                .flatMap(call -> call.onErrorResume(error -> {
+                    logger.warn("Skipping weather refresh batch: {}", error.getMessage());
+                    return Mono.just(0);
+                }), concurrency)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Returns how much longer a location's cached weather will be served before it expires.
+     * 
+     * @param location The city or cell
+     * @return The remaining time to live, or zero if the location's weather is not cached
+     */
+    public Duration getRemainingTtl(WeatherLocation location) {
+        return expiration().getExpiresAfter(location)
+                .filter(remaining -> !remaining.isNegative())
+                .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Returns every cached weather entry with its remaining time to live, for
+     * {@link CacheSnapshot}.
+     * 
+     * @return The cached entries, keyed by location
+     */
+    public List<CacheSnapshot.Entry<WeatherResponse>> snapshotCache() {
+        Policy.VarExpiration<WeatherLocation, WeatherResponse> expiration = expiration();
+        List<CacheSnapshot.Entry<WeatherResponse>> entries = new ArrayList<>();
+        weatherCache.synchronous().asMap().forEach((location, response) ->
+                expiration.getExpiresAfter(location).ifPresent(expiresIn ->
+                        entries.add(new CacheSnapshot.Entry<>(location.toString(), response, expiresIn))));
+        return entries;
+    }
+
+    /**
+     * Puts weather restored by {@link CacheSnapshot}, or read from the shared
+     * cache, back into the cache.
+     * The entry expires after its remaining time to live, capped at the configured TTL.
+     * 
+     * @param key The location, as written by {@link #snapshotCache()}
+     * @param response The cached weather
+     * @param expiresIn The remaining time to live
+     */
+    public void restoreCache(String key, WeatherResponse response, Duration expiresIn) {
+        WeatherLocation location = WeatherLocation.parse(key);
+        Duration ttl = apiConfig.getOpenweathermap().getCache().getTtl();
+        expiration().put(location, response, expiresIn.compareTo(ttl) < 0 ? expiresIn : ttl);
+        remember(location, response);
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the weather cache.
+     * 
+     * @return Snapshot of the weather cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return weatherCache.synchronous().stats();
+    }
+
+    /**
+     * Returns the number of cities and cells currently held in the weather cache.
+     * 
+     * @return Approximate weather cache size
+     */
+    public long getCacheSize() {
+        return weatherCache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Publishes the weather cache statistics as {@code cache.*} meters.
+     * 
+     * @param registry The registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, weatherCache, "weather");
+    }
+
+    /**
+     * Normalizes a city name into a cache key by trimming, collapsing inner
+     * whitespace and folding case.
+     * 
+     * @param city The city name as supplied by the client
+     * @return The normalized city key
+     */
+    public static String normalizeCity(String city) {
+        if (city == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(city.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Loads weather missing from the local cache: from the shared cache if
+     * another replica already fetched it, otherwise from OpenWeatherMap.
+     * 
+     * @param location The city or cell
+     * @return WeatherResponse containing weather information
+     */
+    private Mono<WeatherResponse> loadWeather(WeatherLocation location) {
+        return sharedCache.get(SHARED_NAMESPACE, location.toString(), WeatherResponse.class)
+                .map(entry -> {
+                    // Kept locally only for as long as the shared copy lives
+                    weatherExpiry.expireWriteOf(location, entry.value(), entry.expiresIn());
+                    remember(location, entry.value());
+                    return entry.value();
+                })
+                .switchIfEmpty(Mono.defer(() -> fetchWeather(location)));
+    }
+
+    /**
+     * Replaces a location's cached weather with the newer weather another
+     * replica stored in the shared cache, for the shared entry's remaining
+     * lifetime. Locations this replica does not hold are left alone; if the
+     * shared entry cannot be read, the local one is dropped instead.
+     * 
+     * @param key The location, as shared by {@link #share(WeatherLocation, WeatherResponse)}
+     */
+    private void replaceFromSharedCache(String key) {
+        WeatherLocation location = WeatherLocation.parse(key);
+        if (!weatherCache.asMap().containsKey(location)) {
+            return;
+        }
+        sharedCache.get(SHARED_NAMESPACE, key, WeatherResponse.class)
+                .doOnNext(entry -> restoreCache(key, entry.value(), entry.expiresIn()))
+                .switchIfEmpty(Mono.fromRunnable(() -> weatherCache.synchronous().invalidate(location)))
+                .subscribe();
+    }
+
+    /**
+     * Fetches fresh weather for a location and replaces the cached entry once it arrives.
+     * 
+     * @param location The city or cell
+     * @return The freshly fetched WeatherResponse
+     */
+    private Mono<WeatherResponse> refreshWeather(WeatherLocation location) {
+        return fetchWeather(location)
+                .doOnNext(response -> weatherCache.put(location, CompletableFuture.completedFuture(response)));
+    }
+
+    /**
+     * Calls the OpenWeatherMap group endpoint for a batch of city IDs and
+     * replaces the cached weather of every city that resolved to one of them.
+     * Cities the group call did not return, because it failed, came back
+     * without a list or left their ID out, are then refreshed one by one, so a
+     * batch never has more than one call in flight.
+     * 
+     * @param ids Up to {@code group-size} OpenWeatherMap city IDs
+     * @param locationsById The cities known under each ID
+     * @return The number of cities refreshed
+     */
+    private Mono<Integer> refreshGroup(List<Long> ids, Map<Long, List<WeatherLocation>> locationsById) {
+        URI uri = buildGroupUri(ids);
+        logger.debug("Fetching weather data for {} city IDs", ids.size());
+
+        Mono<WeatherGroupResponse> call = webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(WeatherGroupResponse.class);
+
+        return guard.protect(call)
+                .map(group -> group.getList() == null ? List.<WeatherResponse>of() : group.getList())
+                .onErrorResume(error -> {
+                    logger.warn("Error fetching weather for {} city IDs, falling back to single calls: {}",
+                            ids.size(), error.getMessage());
+                    return Mono.just(List.of());
+                })
+                .defaultIfEmpty(List.of())
+                .flatMap(responses -> {
+                    int refreshed = 0;
+                    Set<Long> missing = new LinkedHashSet<>(ids);
+                    for (WeatherResponse response : responses) {
+                        if (response == null || !missing.remove(response.getCityId())) {
+                            continue;
+                        }
+                        for (WeatherLocation location : locationsById.getOrDefault(response.getCityId(), List.of())) {
+                            weatherCache.put(location, CompletableFuture.completedFuture(response));
+                            remember(location, response);
+                            share(location, response);
+                            refreshed++;
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        return Mono.just(refreshed);
+                    }
+                    return Flux.fromIterable(missing)
+                            .flatMapIterable(id -> locationsById.getOrDefault(id, List.of()))
+                            .concatMap(location -> refreshWeather(location)
+                                    .thenReturn(1)
+                                    .onErrorResume(error -> Mono.just(0)))
+                            .reduce(refreshed, Integer::sum);
+                });
+    }
+
+    /**
+     * Calls OpenWeatherMap for the current weather of a location, bypassing the cache.
+     * The call is guarded by the OpenWeatherMap timeout, bulkhead, retry and
+     * circuit breaker policy. The response is published to the shared cache.
+     * 
+     * @param location The city or cell
+     * @return WeatherResponse containing weather information
+     */
+    private Mono<WeatherResponse> fetchWeather(WeatherLocation location) {
+        URI uri = buildWeatherUri(location);
+        logger.debug("Fetching weather data for: {}", location);
         
-        return webClient.get()
-                .uri(url)
+        Mono<WeatherResponse> call = webClient.get()
+                .uri(uri)
                 .retrieve()
-                .bodyToMono(WeatherResponse.class)
-                .doOnSuccess(response -> logger.info("Successfully retrieved weather for {}: {}", 
-                        city, response.getWeather().get(0).getMain()))
-                .doOnError(error -> logger.error("Error fetching weather for {}: {}", city, error.getMessage()));
+                .bodyToMono(WeatherResponse.class);
+
+        return guard.protect(call)
+                .doOnSuccess(response -> {
+                    remember(location, response);
+                    share(location, response);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Successfully retrieved weather for {}: {}", 
+                                location, response.getWeather().get(0).getMain());
+                    }
+                })
+                .doOnError(error -> logger.error("Error fetching weather for {}: {}", location, error.getMessage()));
+    }
+
+    private Policy.VarExpiration<WeatherLocation, WeatherResponse> expiration() {
+        return weatherCache.synchronous().policy().expireVariably().orElseThrow();
+    }
+
+    /**
+     * Records a location's weather as its last known weather, and its
+     * OpenWeatherMap city ID for group refreshes.
+     * 
+     * @param location The city or cell
+     * @param response The weather just obtained
+     */
+    private void remember(WeatherLocation location, WeatherResponse response) {
+        if (lastKnownWeather != null) {
+            lastKnownWeather.put(location, response);
+        }
+        if (location.kind() == WeatherLocation.Kind.CITY && response.getCityId() != 0) {
+            cityIds.put(location, response.getCityId());
+        }
+    }
+
+    /**
+     * Publishes freshly fetched weather to the shared cache for the other replicas.
+     * 
+     * @param location The city or cell
+     * @param response The weather just fetched
+     */
+    private void share(WeatherLocation location, WeatherResponse response) {
+        sharedCache.put(SHARED_NAMESPACE, location.toString(), response,
+                apiConfig.getOpenweathermap().getCache().getTtl());
+    }
+
+    /**
+     * Falls back to the last weather successfully fetched for a location.
+     * 
+     * @param location The city or cell
+     * @param error The upstream failure
+     * @return The last known weather, or the original error if there is none
+     */
+    private Mono<WeatherResponse> fallbackWeather(WeatherLocation location, Throwable error) {
+        WeatherResponse stale = lastKnownWeather == null ? null : lastKnownWeather.getIfPresent(location);
+        if (stale == null) {
+            return Mono.error(error);
+        }
+        logger.warn("Serving last known weather for {} after upstream failure: {}", location, error.getMessage());
+        return Mono.just(stale);
     }
 
     /**
@@ -61,7 +522,7 @@ public class WeatherService {
         String weatherMain = weatherResponse.getWeather().get(0).getMain();
         double temperature = weatherResponse.getMain().getTemp();
         
-        logger.info("Mapping weather '{}' at {}°C to mood", weatherMain, temperature);
+        logger.debug("Mapping weather '{}' at {}°C to mood", weatherMain, temperature);
 
         return switch (weatherMain.toLowerCase()) {
             case "rain", "drizzle", "thunderstorm" -> "chill";
@@ -88,9 +549,17 @@ public class WeatherService {
      * @return A descriptive playlist title
      */
     public String generatePlaylistTitle(WeatherResponse weatherResponse, String city) {
-        String weatherCondition = weatherResponse.getWeather().get(0).getMain();
-        String mood = mapWeatherToMood(weatherResponse);
-        
+        return generatePlaylistTitle(mapWeatherToMood(weatherResponse), city);
+    }
+
+    /**
+     * Generates a playlist title for an already mapped mood and city.
+     * 
+     * @param mood The mood the weather was mapped to
+     * @param city The city name
+     * @return A descriptive playlist title
+     */
+    public String generatePlaylistTitle(String mood, String city) {
         return String.format("%s Vibes in %s", 
                 capitalizeFirstLetter(mood), 
                 capitalizeFirstLetter(city));
@@ -98,15 +567,57 @@ public class WeatherService {
 
     /**
      * Builds the OpenWeatherMap API URL with parameters.
+     * Cities are queried by name and cells by the coordinates of their center.
+     * Query values are strictly encoded, so reserved characters in a city name
+     * cannot alter the query.
      * 
-     * @param city The city name
-     * @return Complete API URL
+     * @param location The city or cell
+     * @return Complete, encoded API URL
+     */
+    URI buildWeatherUri(WeatherLocation location) {
+        ApiConfig.OpenWeatherMap openWeatherMap = apiConfig.getOpenweathermap();
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(openWeatherMap.getBaseUrl());
+        Map<String, Object> values = new HashMap<>(4);
+
+        if (location.kind() == WeatherLocation.Kind.GEOHASH) {
+            double[] center = location.center();
+            builder.queryParam("lat", "{lat}").queryParam("lon", "{lon}");
+            values.put("lat", String.format(Locale.ROOT, "%.4f", center[0]));
+            values.put("lon", String.format(Locale.ROOT, "%.4f", center[1]));
+        } else {
+            builder.queryParam("q", "{q}");
+            values.put("q", location.key());
+        }
+        values.put("appid", openWeatherMap.getApiKey());
+
+        return builder.queryParam("appid", "{appid}")
+                .queryParam("units", "metric")
+                .encode()
+                .buildAndExpand(values)
+                .toUri();
+    }
+
+    /**
+     * Builds the OpenWeatherMap group API URL for a batch of city IDs.
+     * Unless configured, the group URL is derived from the weather base URL.
+     * 
+     * @param ids The OpenWeatherMap city IDs
+     * @return Complete, encoded API URL
      */
-    private String buildWeatherUrl(String city) {
-        return String.format("%s?q=%s&appid=%s&units=metric",
-                apiConfig.getOpenweathermap().getBaseUrl(),
-                city,
-                apiConfig.getOpenweathermap().getApiKey());
+    URI buildGroupUri(List<Long> ids) {
+        ApiConfig.OpenWeatherMap openWeatherMap = apiConfig.getOpenweathermap();
+        String groupUrl = openWeatherMap.getGroupUrl() != null
+                ? openWeatherMap.getGroupUrl()
+                : openWeatherMap.getBaseUrl().replaceFirst("/weather$", "/group");
+        String joinedIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        return UriComponentsBuilder.fromUriString(groupUrl)
+                .queryParam("id", joinedIds)
+                .queryParam("appid", "{appid}")
+                .queryParam("units", "metric")
+                .encode()
+                .buildAndExpand(openWeatherMap.getApiKey())
+                .toUri();
     }
 
     /**
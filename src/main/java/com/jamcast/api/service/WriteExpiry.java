@@ -0,0 +1,82 @@
+package com.jamcast.api.service;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expires cache entries a fixed time after they were last written, like
+ * {@code expireAfterWrite}, while still allowing individual entries to be put
+ * with a shorter lifetime through {@code policy().expireVariably()}, or to be
+ * loaded with one through {@link #expireWriteOf(Object, Object, Duration)}.
+ */
+final class WriteExpiry<K, V> implements Expiry<K, V> {
+
+    /**
+     * Pending lifetimes beyond which expired ones are pruned.
+     */
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final long ttlNanos;
+    private final Map<K, Pending<V>> pending = new ConcurrentHashMap<>();
+
+    WriteExpiry(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Makes writes of a value expire after the given lifetime, capped at the
+     * TTL. A loader cannot put its own value, so a loader that knows how much
+     * longer its value lives calls this just before returning it. Caffeine may
+     * write a loaded value more than once, so the lifetime holds for every
+     * write of this very instance until another value is written for the key.
+     *
+     * @param key The key about to be written
+     * @param value The value about to be written
+     * @param lifetime How much longer the value lives
+     */
+    void expireWriteOf(K key, V value, Duration lifetime) {
+        long now = System.nanoTime();
+        if (pending.size() >= PRUNE_THRESHOLD) {
+            pending.values().removeIf(p -> p.deadline() - now <= 0);
+        }
+        pending.put(key, new Pending<>(value, now + lifetime.toNanos()));
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return lifetime(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return lifetime(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    private long lifetime(K key, V value, long currentTime) {
+        if (pending.isEmpty()) {
+            return ttlNanos;
+        }
+        Pending<V> expiring = pending.get(key);
+        if (expiring == null) {
+            return ttlNanos;
+        }
+        if (expiring.value() != value || expiring.deadline() - currentTime <= 0) {
+            pending.remove(key, expiring);
+            return ttlNanos;
+        }
+        return Math.min(expiring.deadline() - currentTime, ttlNanos);
+    }
+
+    /**
+     * A value's lifetime, as a {@link System#nanoTime()} deadline.
+     */
+    private record Pending<V>(V value, long deadline) {}
+}
@@ -0,0 +1,127 @@
+package com.jamcast.api.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.WeatherResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two replicas sharing one in-memory store.
+ */
+class SharedCacheTest {
+
+    private final InMemoryRemoteCacheStore store = new InMemoryRemoteCacheStore();
+    private final SimpleMeterRegistry registryA = new SimpleMeterRegistry();
+    private final SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+    private SharedCache replicaA;
+    private SharedCache replicaB;
+
+    @BeforeEach
+    void startReplicas() {
+        replicaA = replica(Optional.of(store), registryA);
+        replicaB = replica(Optional.of(store), registryB);
+    }
+
+    @AfterEach
+    void stopReplicas() {
+        replicaA.stop();
+        replicaB.stop();
+    }
+
+    @Test
+    void valueStoredByOneReplicaIsReadByTheOther() {
+        replicaA.put("weather", "city:london", weather("London"), Duration.ofMinutes(10));
+
+        SharedCache.Entry<WeatherResponse> entry =
+                replicaB.get("weather", "city:london", WeatherResponse.class).block();
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.value().getCityName()).isEqualTo("London");
+        assertThat(entry.expiresIn()).isLessThanOrEqualTo(Duration.ofMinutes(10))
+                .isGreaterThan(Duration.ofMinutes(9));
+        assertThat(registryB.counter(SharedCache.REQUESTS_COUNTER, "namespace", "weather", "result", "hit").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void missIsEmpty() {
+        assertThat(replicaB.get("weather", "city:paris", WeatherResponse.class).block()).isNull();
+        assertThat(registryB.counter(SharedCache.REQUESTS_COUNTER, "namespace", "weather", "result", "miss").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void updatesReachOtherReplicasOnly() {
+        List<String> seenByA = new CopyOnWriteArrayList<>();
+        List<String> seenByB = new CopyOnWriteArrayList<>();
+        replicaA.onUpdate("weather", seenByA::add);
+        replicaB.onUpdate("weather", seenByB::add);
+        replicaB.onUpdate("recommendations", key -> seenByB.add("recommendations " + key));
+
+        replicaA.put("weather", "city:london", weather("London"), Duration.ofMinutes(10));
+
+        assertThat(seenByA).isEmpty();
+        assertThat(seenByB).containsExactly("city:london");
+        // The listener can read the new value straight away
+        assertThat(replicaB.get("weather", seenByB.get(0), WeatherResponse.class).block().value().getCityName())
+                .isEqualTo("London");
+    }
+
+    @Test
+    void readersSeeOnlyTheRemainingLifetime() throws InterruptedException {
+        replicaA.put("weather", "city:london", weather("London"), Duration.ofMillis(800));
+        Thread.sleep(300);
+
+        SharedCache.Entry<WeatherResponse> entry =
+                replicaB.get("weather", "city:london", WeatherResponse.class).block();
+
+        assertThat(entry.expiresIn()).isLessThanOrEqualTo(Duration.ofMillis(500)).isPositive();
+
+        Thread.sleep(entry.expiresIn().toMillis() + 50);
+        assertThat(replicaB.get("weather", "city:london", WeatherResponse.class).block()).isNull();
+    }
+
+    @Test
+    void unreachableRedisDegradesToMisses() {
+        // Nothing listens on port 1, and constructing the store must not try to connect
+        RedisRemoteCacheStore redis = new RedisRemoteCacheStore("redis://127.0.0.1:1", "jamcast:invalidations");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SharedCache cache = replica(Optional.of(redis), registry);
+        try {
+            cache.put("weather", "city:london", weather("London"), Duration.ofMinutes(10));
+
+            assertThat(cache.get("weather", "city:london", WeatherResponse.class).block()).isNull();
+            assertThat(cache.tryLease("warmup", Duration.ofMinutes(1)).block()).isTrue();
+            assertThat(registry.counter(SharedCache.REQUESTS_COUNTER, "namespace", "weather", "result", "error")
+                    .count()).isPositive();
+        } finally {
+            cache.stop();
+            redis.close();
+        }
+    }
+
+    private static SharedCache replica(Optional<RemoteCacheStore> store, SimpleMeterRegistry registry) {
+        ApiConfig apiConfig = new ApiConfig();
+        apiConfig.getSharedCache().setType("in-memory");
+        SharedCache cache = new SharedCache(store, new ObjectMapper(), registry, apiConfig);
+        cache.start();
+        return cache;
+    }
+
+    private static WeatherResponse weather(String cityName) {
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName(cityName);
+        response.setCityId(2643743);
+        return response;
+    }
+}
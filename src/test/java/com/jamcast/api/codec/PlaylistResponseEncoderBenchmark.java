@@ -0,0 +1,98 @@
+package com.jamcast.api.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.service.RecommendationsDecoder;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a 20-track playlist with the default Jackson encoder
+ * versus the fragment-based {@link PlaylistResponseEncoder}, both into pooled
+ * Netty buffers and into the byte arrays cached for {@code /playlist}.
+ * The playlist reuses the same track instances on every call, as playlists
+ * built from the track store do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaylistResponseEncoderBenchmark {
+
+    private static final ResolvableType PLAYLIST_TYPE = ResolvableType.forClass(PlaylistResponse.class);
+
+    private ObjectMapper objectMapper;
+    private Jackson2JsonEncoder jacksonEncoder;
+    private PlaylistResponseEncoder playlistEncoder;
+    private NettyDataBufferFactory bufferFactory;
+    private PlaylistResponse playlist;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Payloads.objectMapper();
+        jacksonEncoder = new Jackson2JsonEncoder(objectMapper);
+        playlistEncoder = new PlaylistResponseEncoder(null);
+        bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+        List<PlaylistTrack> tracks = new ArrayList<>();
+        for (SpotifyTrack track : new RecommendationsDecoder()
+                .decode(Payloads.load(Payloads.SPOTIFY_RECOMMENDATIONS)).getTracks()) {
+            tracks.add(new PlaylistTrack(track.getName(), track.getArtists()[0].getName(),
+                    track.getExternalUrls().getSpotify(), track.getAlbum().getName()));
+        }
+        playlist = new PlaylistResponse("Happy Vibes in London", "Clear", "happy", tracks, "London");
+    }
+
+    @Benchmark
+    public int jacksonToBuffer() {
+        DataBuffer buffer = jacksonEncoder.encodeValue(playlist, bufferFactory, PLAYLIST_TYPE,
+                MediaType.APPLICATION_JSON, null);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public int fragmentsToBuffer() {
+        DataBuffer buffer = playlistEncoder.encodeValue(playlist, bufferFactory, PLAYLIST_TYPE,
+                MediaType.APPLICATION_JSON, null);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public byte[] jacksonToBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(playlist);
+    }
+
+    @Benchmark
+    public byte[] fragmentsToBytes() {
+        return playlistEncoder.encodeToBytes(playlist);
+    }
+}
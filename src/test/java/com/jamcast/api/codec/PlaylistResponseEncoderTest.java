@@ -0,0 +1,162 @@
+package com.jamcast.api.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.service.SpotifyService;
+import com.jamcast.api.service.SpotifyTokenManager;
+import com.jamcast.api.service.TrackCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the encoder writes exactly the bytes Jackson would.
+ */
+class PlaylistResponseEncoderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final PlaylistResponseEncoder encoder = new PlaylistResponseEncoder(null);
+
+    @Test
+    void matchesJacksonForATypicalPlaylist() throws Exception {
+        assertMatchesJackson(new PlaylistResponse("Sunny Vibes in Chicago", "Clear", "happy",
+                List.of(track("Here Comes the Sun", "The Beatles", "https://open.spotify.com/track/1", "Abbey Road"),
+                        track("Walking on Sunshine", "Katrina & The Waves", "https://open.spotify.com/track/2",
+                                "Walking on Sunshine")),
+                "Chicago"));
+    }
+
+    @Test
+    void matchesJacksonForNullFields() throws Exception {
+        assertMatchesJackson(new PlaylistResponse());
+        assertMatchesJackson(new PlaylistResponse(null, "Rain", null, new ArrayList<>(), null));
+        assertMatchesJackson(new PlaylistResponse("t", "Rain", "calm",
+                Arrays.asList(track(null, null, null, null), null), "c"));
+    }
+
+    @Test
+    void matchesJacksonForEscapedCharacters() throws Exception {
+        assertMatchesJackson(new PlaylistResponse("Say \"hi\" \\ bye", "Line\nbreak\ttab\r", "\u0001\u001f\u007f",
+                List.of(track("</script><script>", "A B C", "https://x/?a=1&b=<2>", "'single'")),
+                "Back\\slash \"quoted\""));
+    }
+
+    @Test
+    void matchesJacksonForNonAsciiCities() throws Exception {
+        assertMatchesJackson(new PlaylistResponse("Rainy Day in São Paulo", "Rain", "melancholic",
+                List.of(track("Águas de Março", "Elis Regina & Tom Jobim", "https://open.spotify.com/track/3",
+                        "Elis & Tom")),
+                "São Paulo"));
+        assertMatchesJackson(new PlaylistResponse("東京の雨", "Rain", "calm",
+                List.of(track("夜に駆ける", "YOASOBI", "https://open.spotify.com/track/4", "THE BOOK")),
+                "東京"));
+        assertMatchesJackson(new PlaylistResponse("Zürich 🌧", "Drizzle", "calm", List.of(), "Zürich"));
+    }
+
+    @Test
+    void reusedTrackFragmentsStayIdentical() throws Exception {
+        PlaylistTrack shared = track("Track", "Artist", "https://open.spotify.com/track/5", "Album");
+        PlaylistResponse first = new PlaylistResponse("a", "Clear", "happy", List.of(shared), "A");
+        PlaylistResponse second = new PlaylistResponse("b", "Clear", "happy", List.of(shared, shared), "B");
+
+        assertMatchesJackson(first);
+        assertMatchesJackson(second);
+    }
+
+    @Test
+    void catalogPlaylistsReuseTrackFragments() throws Exception {
+        ApiConfig apiConfig = Payloads.apiConfig();
+        // A full pool is never topped up, so no call leaves the test
+        apiConfig.getSpotify().getCatalog().setMinTracksPerMood(0);
+        TrackCatalog catalog = new TrackCatalog(Payloads.objectMapper(), apiConfig);
+        SpotifyService spotifyService = new SpotifyService(WebClient.create(), apiConfig,
+                Payloads.guard("spotify", apiConfig.getSpotify().getResilience()),
+                new SpotifyTokenManager(WebClient.create(), apiConfig), catalog, Payloads.sharedCache(apiConfig));
+        catalog.harvest("pop,indie-pop,summer", IntStream.range(0, 30)
+                .mapToObj(i -> spotifyTrack("id" + i, "Track " + i))
+                .toArray(SpotifyTrack[]::new));
+
+        Set<String> encodedIds = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            SpotifyRecommendationsResponse sampled = spotifyService.getRecommendationsByMood("happy").block();
+            List<PlaylistTrack> tracks = spotifyService.convertToPlaylistTracks(sampled.getTracks());
+            assertMatchesJackson(new PlaylistResponse("Sunny Vibes in Chicago", "Clear", "happy", tracks, "Chicago"));
+            encodedIds.addAll(Arrays.stream(sampled.getTracks()).map(SpotifyTrack::getId).collect(Collectors.toSet()));
+
+            // Every sample is a new response, but tracks already seen keep their instance and fragment
+            assertThat(encoder.getTrackFragmentCount()).isEqualTo(encodedIds.size());
+        }
+        assertThat(encodedIds.size()).isLessThanOrEqualTo(30);
+    }
+
+    @Test
+    void buffersAndStreamsMatchJackson() throws Exception {
+        PlaylistResponse first = new PlaylistResponse("One", "Clear", "happy",
+                List.of(track("Ça va", "Ünïcødé", "u", "a")), "Köln");
+        PlaylistResponse second = new PlaylistResponse("Two", "Snow", "cozy", List.of(), "Oslo");
+        DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        ResolvableType type = ResolvableType.forClass(PlaylistResponse.class);
+
+        DataBuffer single = encoder.encodeValue(first, bufferFactory, type, MediaType.APPLICATION_JSON, null);
+        assertThat(text(single)).isEqualTo(objectMapper.writeValueAsString(first));
+
+        String ndjson = join(encoder.encode(Flux.just(first, second), bufferFactory, type,
+                MediaType.APPLICATION_NDJSON, null));
+        assertThat(ndjson).isEqualTo(objectMapper.writeValueAsString(first) + "\n"
+                + objectMapper.writeValueAsString(second) + "\n");
+
+        String array = join(encoder.encode(Flux.just(first, second), bufferFactory, type,
+                MediaType.APPLICATION_JSON, null));
+        assertThat(array).isEqualTo(objectMapper.writeValueAsString(List.of(first, second)));
+    }
+
+    private void assertMatchesJackson(PlaylistResponse response) throws Exception {
+        byte[] expected = objectMapper.writeValueAsBytes(response);
+        assertThat(new String(encoder.encodeToBytes(response), StandardCharsets.UTF_8))
+                .isEqualTo(new String(expected, StandardCharsets.UTF_8));
+        assertThat(encoder.encodeToBytes(response)).isEqualTo(expected);
+    }
+
+    private static String join(Flux<DataBuffer> buffers) {
+        return String.join("", buffers.map(PlaylistResponseEncoderTest::text).collectList().block());
+    }
+
+    private static String text(DataBuffer buffer) {
+        String text = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return text;
+    }
+
+    private static SpotifyTrack spotifyTrack(String id, String name) {
+        SpotifyTrack track = new SpotifyTrack();
+        track.setId(id);
+        track.setName(name);
+        return track;
+    }
+
+    private static PlaylistTrack track(String name, String artist, String spotifyUrl, String albumName) {
+        return new PlaylistTrack(name, artist, spotifyUrl, albumName);
+    }
+}
@@ -0,0 +1,179 @@
+package com.jamcast.api.controller;
+
+import com.jamcast.api.codec.PlaylistResponseEncoder;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistRequest;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.resilience.AdmissionControl;
+import com.jamcast.api.resilience.ClientRateLimiter;
+import com.jamcast.api.service.CityRequestTracker;
+import com.jamcast.api.service.PlaylistResponseCache;
+import com.jamcast.api.service.PlaylistService;
+import com.jamcast.api.service.SpotifyService;
+import com.jamcast.api.service.TrackStore;
+import com.jamcast.api.service.WeatherLocation;
+import com.jamcast.api.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the ETag, Cache-Control and 304 handling of /api/v1/playlist, with
+ * the upstream services stubbed so every generated playlist is a new sample.
+ */
+class PlaylistControllerCachingTest {
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final SpotifyService spotifyService = mock(SpotifyService.class);
+    private final AtomicInteger samples = new AtomicInteger();
+    private Duration remainingTtl = Duration.ofSeconds(300);
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        WeatherResponse.Weather condition = new WeatherResponse.Weather();
+        condition.setMain("Clear");
+        WeatherResponse weather = new WeatherResponse();
+        weather.setWeather(List.of(condition));
+
+        when(weatherService.locate(any(PlaylistRequest.class)))
+                .thenAnswer(invocation -> WeatherLocation.city(invocation.<PlaylistRequest>getArgument(0).getCity()));
+        when(weatherService.getWeather(any(WeatherLocation.class))).thenReturn(Mono.just(weather));
+        when(weatherService.getCachedWeather(any(WeatherLocation.class))).thenReturn(weather);
+        when(weatherService.getRemainingTtl(any(WeatherLocation.class))).thenAnswer(invocation -> remainingTtl);
+        when(weatherService.mapWeatherToMood(weather)).thenReturn("happy");
+        when(weatherService.generatePlaylistTitle(anyString(), anyString()))
+                .thenAnswer(invocation -> "Sunny Vibes in " + invocation.getArgument(1));
+        // Like the catalog, every call returns a different sample
+        when(spotifyService.getRecommendationsByMood("happy")).thenAnswer(invocation -> {
+            int sample = samples.incrementAndGet();
+            SpotifyTrack track = new SpotifyTrack();
+            track.setName("Sample " + sample);
+            SpotifyRecommendationsResponse recommendations = new SpotifyRecommendationsResponse();
+            recommendations.setTracks(new SpotifyTrack[] {track});
+            return Mono.just(recommendations);
+        });
+        when(spotifyService.convertToPlaylistTracks(any())).thenAnswer(invocation -> Arrays
+                .stream(invocation.<SpotifyTrack[]>getArgument(0))
+                .map(track -> new PlaylistTrack(track.getName(), "Artist", "https://open.spotify.com/track/1", "Album"))
+                .toList());
+
+        ApiConfig apiConfig = Payloads.apiConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry);
+        TrackStore trackStore = new TrackStore();
+        PlaylistResponseCache playlistResponseCache = new PlaylistResponseCache(
+                new PlaylistResponseEncoder(pipelineMetrics), pipelineMetrics, trackStore, apiConfig);
+        PlaylistService playlistService = new PlaylistService(weatherService, spotifyService, apiConfig,
+                pipelineMetrics, new CityRequestTracker(apiConfig), trackStore, playlistResponseCache);
+        client = WebTestClient.bindToController(new PlaylistController(playlistService, weatherService,
+                        spotifyService, playlistResponseCache,
+                        new AdmissionControl(apiConfig.getAdmission(), meterRegistry),
+                        new ClientRateLimiter(apiConfig, meterRegistry)))
+                .build();
+    }
+
+    @Test
+    void responseCarriesETagAndRemainingWeatherTtl() {
+        client.get().uri("/api/v1/playlist?city=Oslo").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.ETAG, "\"[0-9a-f]{32}\"")
+                .expectHeader().cacheControl(CacheControl
+                        .maxAge(Duration.ofSeconds(300)).cachePublic())
+                .expectBody()
+                .jsonPath("$.city").isEqualTo("Oslo")
+                .jsonPath("$.tracks[0].name").isEqualTo("Sample 1");
+    }
+
+    @Test
+    void repeatedRequestsGetTheSerializedPlaylistWithoutGenerating() {
+        EntityExchangeResult<byte[]> first = get("Oslo", null);
+        EntityExchangeResult<byte[]> second = get("Oslo", null);
+
+        assertThat(second.getResponseHeaders().getETag()).isEqualTo(first.getResponseHeaders().getETag());
+        assertThat(second.getResponseBody()).isEqualTo(first.getResponseBody());
+        verify(spotifyService, times(1)).getRecommendationsByMood("happy");
+        verify(weatherService, times(1)).getWeather(any(WeatherLocation.class));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304BeforeGenerating() {
+        String eTag = get("Oslo", null).getResponseHeaders().getETag();
+        remainingTtl = Duration.ofSeconds(120);
+
+        for (String ifNoneMatch : List.of(eTag, "W/" + eTag, "\"other\", " + eTag, "*")) {
+            client.get().uri("/api/v1/playlist?city=Oslo")
+                    .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                    .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=120, public")
+                    .expectBody().isEmpty();
+        }
+        verify(spotifyService, times(1)).getRecommendationsByMood("happy");
+    }
+
+    @Test
+    void staleIfNoneMatchGetsTheFullPlaylist() {
+        String eTag = get("Oslo", null).getResponseHeaders().getETag();
+
+        EntityExchangeResult<byte[]> result = get("Oslo", "\"0123456789abcdef0123456789abcdef\"");
+
+        assertThat(result.getResponseHeaders().getETag()).isEqualTo(eTag);
+        assertThat(result.getResponseBody()).isNotEmpty();
+    }
+
+    @Test
+    void zeroMaxAgeBypassesTheSerializedPlaylistCache() {
+        remainingTtl = Duration.ZERO;
+
+        EntityExchangeResult<byte[]> first = get("Oslo", null);
+        EntityExchangeResult<byte[]> second = get("Oslo", null);
+
+        assertThat(first.getResponseHeaders().getCacheControl()).isEqualTo("max-age=0, public");
+        assertThat(second.getResponseHeaders().getETag()).isNotEqualTo(first.getResponseHeaders().getETag());
+        verify(spotifyService, times(2)).getRecommendationsByMood("happy");
+
+        // A playlist served while nothing was cacheable is not served later either
+        remainingTtl = Duration.ofSeconds(300);
+        EntityExchangeResult<byte[]> third = get("Oslo", null);
+        assertThat(third.getResponseHeaders().getETag()).isNotIn(
+                first.getResponseHeaders().getETag(), second.getResponseHeaders().getETag());
+    }
+
+    private EntityExchangeResult<byte[]> get(String city, String ifNoneMatch) {
+        return client.get().uri("/api/v1/playlist?city=" + city)
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult();
+    }
+}
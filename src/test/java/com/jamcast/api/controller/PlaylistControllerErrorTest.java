@@ -0,0 +1,107 @@
+package com.jamcast.api.controller;
+
+import com.jamcast.api.perf.UpstreamStubServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that upstream failures on /api/v1/playlist reach GlobalExceptionHandler
+ * and are answered with their proper status instead of a generic 500.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class PlaylistControllerErrorTest {
+
+    private static final UpstreamStubServer upstream = new UpstreamStubServer(Duration.ZERO, 0, 20).start();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("api.openweathermap.base-url", upstream::weatherUrl);
+        registry.add("api.spotify.base-url", upstream::spotifyUrl);
+        registry.add("api.spotify.token-url", upstream::tokenUrl);
+        registry.add("api.spotify.client-id", () -> "test-client");
+        registry.add("api.spotify.client-secret", () -> "test-secret");
+        registry.add("api.warmup.enabled", () -> false);
+        registry.add("api.client-rate-limit.enabled", () -> false);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @AfterEach
+    void closeBreakers() {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(breaker -> breaker.transitionToClosedState());
+    }
+
+    @Test
+    void openCircuitIsAnsweredWithServiceUnavailable() {
+        circuitBreakerRegistry.circuitBreaker("openweathermap").transitionToOpenState();
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/v1/playlist").queryParam("city", "Breakerton").build())
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Service unavailable")
+                .jsonPath("$.message").isEqualTo("External service is temporarily unavailable");
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void throttledUpstreamIsAnsweredWithRetryAfter() {
+        upstream.throttleWeather(Duration.ofSeconds(30));
+        try {
+            // The upstream's own 429 is passed on as 503 with its Retry-After
+            webTestClient.get()
+                    .uri(uri -> uri.path("/api/v1/playlist").queryParam("city", "Throttleton").build())
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().valueEquals("Retry-After", "30");
+
+            // Further calls are held back without reaching the upstream
+            long weatherCalls = upstream.getWeatherCalls();
+            webTestClient.get()
+                    .uri(uri -> uri.path("/api/v1/playlist").queryParam("city", "Pausedale").build())
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectHeader().value("Retry-After", retryAfter ->
+                            assertThat(Long.parseLong(retryAfter)).isBetween(1L, 30L))
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("External service is throttling requests, retry later");
+            assertThat(upstream.getWeatherCalls()).isEqualTo(weatherCalls);
+        } finally {
+            upstream.throttleWeather(null);
+        }
+    }
+
+    @Test
+    void healthyUpstreamStillAnswersWithPlaylist() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/v1/playlist").queryParam("city", "Healthyville").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.city").isEqualTo("Healthyville");
+    }
+}
@@ -0,0 +1,52 @@
+package com.jamcast.api.perf;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Collects per-request latencies during a load run and turns them into a report.
+ * Recording is a synchronized array append, which is negligible next to an HTTP round trip.
+ */
+class LatencyRecorder {
+
+    /**
+     * Fewer samples leave too few requests above p999 for it to say more than the maximum.
+     */
+    static final int MIN_SAMPLES_FOR_P999 = 10_000;
+
+    private long[] latencies = new long[1 << 16];
+    private int count;
+    private long errors;
+
+    synchronized void recordSuccess(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized LoadReport report(Duration elapsed) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new LoadReport(
+                count,
+                errors,
+                elapsed,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                count < MIN_SAMPLES_FOR_P999 ? null : percentile(sorted, 0.999),
+                count == 0 ? Duration.ZERO : Duration.ofNanos(sorted[count - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+}
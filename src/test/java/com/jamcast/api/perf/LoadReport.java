@@ -0,0 +1,26 @@
+package com.jamcast.api.perf;
+
+import java.time.Duration;
+
+/**
+ * Result of a load run: throughput and latency percentiles for successful requests.
+ * {@code p999} is null when the run was too short to estimate it.
+ */
+public record LoadReport(long requests, long errors, Duration elapsed,
+                         Duration p50, Duration p99, Duration p999, Duration max) {
+
+    public double throughput() {
+        return elapsed.isZero() ? 0 : requests / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d errors=%d throughput=%.1f req/s p50=%.2fms p99=%.2fms p999=%s max=%.2fms",
+                requests, errors, throughput(), millis(p50), millis(p99),
+                p999 == null ? "n/a" : String.format("%.2fms", millis(p999)), millis(max));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
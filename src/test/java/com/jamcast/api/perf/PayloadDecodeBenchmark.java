@@ -0,0 +1,87 @@
+package com.jamcast.api.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.service.RecommendationsDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson decode cost of recorded OpenWeatherMap and Spotify payloads.
+ * The recommendations payload is also decoded from 8 KiB buffers, as it arrives
+ * from the network, once with the WebClient's default JSON decoder and once with
+ * the streaming {@link RecommendationsDecoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadDecodeBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ObjectMapper objectMapper;
+    private byte[] weatherPayload;
+    private byte[] recommendationsPayload;
+    private Jackson2JsonDecoder jsonDecoder;
+    private RecommendationsDecoder recommendationsDecoder;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Payloads.objectMapper();
+        weatherPayload = Payloads.load(Payloads.WEATHER);
+        recommendationsPayload = Payloads.load(Payloads.SPOTIFY_RECOMMENDATIONS);
+        jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+        recommendationsDecoder = new RecommendationsDecoder(objectMapper.getFactory());
+    }
+
+    @Benchmark
+    public WeatherResponse decodeWeather() throws IOException {
+        return objectMapper.readValue(weatherPayload, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public SpotifyRecommendationsResponse decodeRecommendations() throws IOException {
+        return objectMapper.readValue(recommendationsPayload, SpotifyRecommendationsResponse.class);
+    }
+
+    @Benchmark
+    public Object decodeRecommendationsBuffered() {
+        return jsonDecoder.decodeToMono(recommendationsBuffers(),
+                ResolvableType.forClass(SpotifyRecommendationsResponse.class), null, null).block();
+    }
+
+    @Benchmark
+    public SpotifyRecommendationsResponse decodeRecommendationsStreaming() {
+        return recommendationsDecoder.decode(recommendationsBuffers()).block();
+    }
+
+    /**
+     * Wraps the recommendations payload in 8 KiB buffers without copying it.
+     */
+    private Flux<DataBuffer> recommendationsBuffers() {
+        return Flux.range(0, (recommendationsPayload.length + BUFFER_SIZE - 1) / BUFFER_SIZE)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(recommendationsPayload,
+                        i * BUFFER_SIZE, Math.min(BUFFER_SIZE, recommendationsPayload.length - i * BUFFER_SIZE))));
+    }
+}
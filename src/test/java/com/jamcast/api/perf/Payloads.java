@@ -0,0 +1,84 @@
+package com.jamcast.api.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.cache.SharedCache;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.resilience.UpstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * Recorded upstream payloads and shared fixtures for benchmarks.
+ */
+public final class Payloads {
+
+    public static final String WEATHER = "/payloads/weather.json";
+    public static final String SPOTIFY_RECOMMENDATIONS = "/payloads/spotify-recommendations.json";
+
+    private Payloads() {}
+
+    /**
+     * Reads a recorded payload from the test classpath.
+     *
+     * @param resource The classpath resource name
+     * @return The raw payload bytes
+     */
+    public static byte[] load(String resource) {
+        try (InputStream in = Payloads.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing payload " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds an ObjectMapper configured the way Spring Boot configures the WebClient codecs.
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * Builds an ApiConfig pointing at placeholder upstream URLs.
+     */
+    public static ApiConfig apiConfig() {
+        ApiConfig.OpenWeatherMap openWeatherMap = new ApiConfig.OpenWeatherMap();
+        openWeatherMap.setBaseUrl("https://api.openweathermap.org/data/2.5/weather");
+        openWeatherMap.setApiKey("0123456789abcdef0123456789abcdef");
+
+        ApiConfig.Spotify spotify = new ApiConfig.Spotify();
+        spotify.setBaseUrl("https://api.spotify.com/v1");
+        spotify.setAccessToken("benchmark-token");
+
+        ApiConfig apiConfig = new ApiConfig();
+        apiConfig.setOpenweathermap(openWeatherMap);
+        apiConfig.setSpotify(spotify);
+        return apiConfig;
+    }
+
+    /**
+     * Builds a standalone UpstreamGuard with its own registries.
+     */
+    public static UpstreamGuard guard(String upstream, ApiConfig.Resilience resilience) {
+        return new UpstreamGuard(upstream, resilience, CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), RateLimiterRegistry.ofDefaults(), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Builds a disabled SharedCache, as used by a single replica.
+     */
+    public static SharedCache sharedCache(ApiConfig apiConfig) {
+        return new SharedCache(Optional.empty(), objectMapper(), new SimpleMeterRegistry(), apiConfig);
+    }
+}
@@ -0,0 +1,103 @@
+package com.jamcast.api.perf;
+
+import com.jamcast.api.dto.PlaylistRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Open-loop load driver for POST /api/v1/playlist.
+ * Requests are sent at a fixed rate, picking a city uniformly from a pool of
+ * {@code cityCount} names, for a warm-up period followed by a measured period.
+ * Request {@code i} is due at {@code i / rate} seconds into its phase and its
+ * latency is measured from that time, not from when it was actually sent.
+ * A slow response therefore never holds back the requests due after it, and
+ * time spent waiting for a connection or a late timer counts as latency, so
+ * the percentiles do not suffer from coordinated omission.
+ */
+public class PlaylistLoadDriver {
+
+    private final String playlistUrl;
+    private final int ratePerSecond;
+    private final int connections;
+    private final int cityCount;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public PlaylistLoadDriver(String playlistUrl, int ratePerSecond, int connections, int cityCount,
+                              Duration warmup, Duration duration) {
+        this.playlistUrl = playlistUrl;
+        this.ratePerSecond = ratePerSecond;
+        this.connections = connections;
+        this.cityCount = cityCount;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    /**
+     * Runs the warm-up and measured phases and reports on the measured one.
+     *
+     * @return Throughput and latency report for the measured phase
+     */
+    public LoadReport run() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-driver")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            WebClient client = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .build();
+
+            runPhase(client, warmup, new LatencyRecorder());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long start = System.nanoTime();
+            runPhase(client, duration, recorder);
+            return recorder.report(Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+    /**
+     * Sends {@code rate * phase} requests on schedule and waits for all of them to finish.
+     */
+    private void runPhase(WebClient client, Duration phase, LatencyRecorder recorder) {
+        long requests = phase.toNanos() * ratePerSecond / 1_000_000_000L;
+        if (requests == 0) {
+            return;
+        }
+        long intervalNanos = 1_000_000_000L / ratePerSecond;
+        Flux.defer(() -> {
+                    long start = System.nanoTime();
+                    return Flux.interval(Duration.ZERO, Duration.ofNanos(intervalNanos))
+                            .take(requests)
+                            .flatMap(i -> sendOne(client, recorder, start + i * intervalNanos), Integer.MAX_VALUE);
+                })
+                .blockLast();
+    }
+
+    private Mono<Void> sendOne(WebClient client, LatencyRecorder recorder, long dueAt) {
+        String city = "City " + ThreadLocalRandom.current().nextInt(cityCount);
+        return client.post()
+                .uri(playlistUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PlaylistRequest(city))
+                .retrieve()
+                .toBodilessEntity()
+                .doOnNext(response -> recorder.recordSuccess(System.nanoTime() - dueAt))
+                .onErrorResume(error -> {
+                    recorder.recordError();
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,91 @@
+package com.jamcast.api.perf;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offline performance baseline for POST /api/v1/playlist.
+ * Boots the application against {@link UpstreamStubServer} and drives it with
+ * {@link PlaylistLoadDriver}. Skipped unless run with {@code -Djamcast.perf=true}:
+ *
+ * <pre>
+ * mvn test -Djamcast.perf=true -Dtest=PlaylistLoadTest \
+ *     -Djamcast.perf.rate=500 -Djamcast.perf.duration=30s
+ * </pre>
+ *
+ * Tunables (system properties): {@code jamcast.perf.rate} (requests per second),
+ * {@code .connections}, {@code .cities},
+ * {@code .warmup}, {@code .duration}, {@code .upstream-latency}, {@code .error-rate}
+ * and {@code .tracks}. Application properties such as logging levels can be
+ * overridden the same way.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "jamcast.perf", matches = "true")
+class PlaylistLoadTest {
+
+    private static final UpstreamStubServer upstream = new UpstreamStubServer(
+            duration("jamcast.perf.upstream-latency", "20ms"),
+            Double.parseDouble(System.getProperty("jamcast.perf.error-rate", "0")),
+            Integer.getInteger("jamcast.perf.tracks", 20)).start();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("api.openweathermap.base-url", upstream::weatherUrl);
+        registry.add("api.spotify.base-url", upstream::spotifyUrl);
+        registry.add("api.spotify.token-url", upstream::tokenUrl);
+        registry.add("api.spotify.client-id", () -> "perf-client");
+        registry.add("api.spotify.client-secret", () -> "perf-secret");
+        // The stubs have no quotas, and the driver is a single client
+        registry.add("api.openweathermap.resilience.rate-limit", () -> 0);
+        registry.add("api.spotify.resilience.rate-limit", () -> 0);
+        registry.add("api.client-rate-limit.enabled", () -> false);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void playlistThroughput() {
+        PlaylistLoadDriver driver = new PlaylistLoadDriver(
+                "http://127.0.0.1:" + port + "/api/v1/playlist",
+                Integer.getInteger("jamcast.perf.rate", 500),
+                Integer.getInteger("jamcast.perf.connections", 64),
+                Integer.getInteger("jamcast.perf.cities", 500),
+                duration("jamcast.perf.warmup", "5s"),
+                duration("jamcast.perf.duration", "20s"));
+
+        LoadReport report = driver.run();
+
+        System.out.println("[jamcast-perf] " + report);
+        System.out.printf("[jamcast-perf] upstream calls: weather=%d group=%d recommendations=%d tokens=%d injectedErrors=%d%n",
+                upstream.getWeatherCalls(), upstream.getGroupCalls(), upstream.getRecommendationCalls(),
+                upstream.getTokenCalls(),
+                upstream.getInjectedErrors());
+        assertThat(report.requests()).isPositive();
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+}
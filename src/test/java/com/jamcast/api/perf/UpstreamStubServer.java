@@ -0,0 +1,330 @@
+package com.jamcast.api.perf;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local fake of the OpenWeatherMap and Spotify APIs for offline performance runs.
+ * Latency, error rate and recommendation payload size are configurable, and
+ * every call is counted so runs can report how much upstream traffic they caused.
+ * Once a client credentials token has been issued, recommendations requests
+ * carrying any other Bearer token are rejected with 401. The group endpoint
+ * answers for city IDs previously returned by the single-city endpoint.
+ * The weather endpoints can be switched to answer 429 with a Retry-After, and
+ * the group endpoint to answer with a fixed status and body. Tokens can be
+ * issued with another lifetime, delayed, or refused.
+ */
+public class UpstreamStubServer implements AutoCloseable {
+
+    public static final String WEATHER_PATH = "/data/2.5/weather";
+    public static final String GROUP_PATH = "/data/2.5/group";
+    public static final String SPOTIFY_PATH = "/v1";
+    public static final String TOKEN_PATH = "/api/token";
+    public static final long TOKEN_TTL_SECONDS = 3600;
+
+    private static final String[] CONDITIONS = {
+            "Clear", "Clouds", "Rain", "Drizzle", "Snow", "Mist", "Thunderstorm", "Tornado"
+    };
+
+    private final Duration latency;
+    private final double errorRate;
+    private final int trackCount;
+
+    private final AtomicLong weatherCalls = new AtomicLong();
+    private final AtomicLong groupCalls = new AtomicLong();
+    private final Map<Integer, String> citiesById = new ConcurrentHashMap<>();
+    private final AtomicLong recommendationCalls = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong tokenCalls = new AtomicLong();
+    private final Set<String> issuedTokens = ConcurrentHashMap.newKeySet();
+    private final Map<String, byte[]> recommendationPayloads = new ConcurrentHashMap<>();
+
+    private volatile Duration weatherRetryAfter;
+    private volatile FixedResponse groupResponse;
+    private volatile long tokenTtlSeconds = TOKEN_TTL_SECONDS;
+    private volatile Duration tokenLatency = Duration.ZERO;
+    private volatile HttpResponseStatus tokenFailure;
+    // Own event loops, so the stub outlives application contexts that dispose the global ones
+    private final LoopResources loops = LoopResources.create("upstream-stub", 1, true);
+    private DisposableServer server;
+
+    public UpstreamStubServer(Duration latency, double errorRate, int trackCount) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.trackCount = trackCount;
+    }
+
+    /**
+     * Starts the stub on an ephemeral local port.
+     *
+     * @return This stub, for chaining
+     */
+    public UpstreamStubServer start() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .runOn(loops)
+                .route(routes -> routes
+                        .get(WEATHER_PATH, this::weather)
+                        .get(GROUP_PATH, this::group)
+                        .get(SPOTIFY_PATH + "/recommendations", this::recommendations)
+                        .post(TOKEN_PATH, this::token))
+                .bindNow();
+        return this;
+    }
+
+    public String weatherUrl() {
+        return baseUrl() + WEATHER_PATH;
+    }
+
+    public String spotifyUrl() {
+        return baseUrl() + SPOTIFY_PATH;
+    }
+
+    public String tokenUrl() {
+        return baseUrl() + TOKEN_PATH;
+    }
+
+    public long getWeatherCalls() {
+        return weatherCalls.get();
+    }
+
+    public long getGroupCalls() {
+        return groupCalls.get();
+    }
+
+    public long getRecommendationCalls() {
+        return recommendationCalls.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getTokenCalls() {
+        return tokenCalls.get();
+    }
+
+    /**
+     * Makes the weather endpoints answer 429 with the given Retry-After, or
+     * answer normally again.
+     *
+     * @param retryAfter The Retry-After to send, or null to stop throttling
+     */
+    public void throttleWeather(Duration retryAfter) {
+        this.weatherRetryAfter = retryAfter;
+    }
+
+    /**
+     * Makes the group endpoint answer with the given status and body, or
+     * answer normally again.
+     *
+     * @param status The status to send, or null to stop overriding
+     * @param body The JSON body to send, possibly empty
+     */
+    public void overrideGroup(HttpResponseStatus status, String body) {
+        this.groupResponse = status == null ? null : new FixedResponse(status, body);
+    }
+
+    /**
+     * Sets the lifetime of tokens issued from now on.
+     *
+     * @param seconds The expires_in to send
+     */
+    public void setTokenTtl(long seconds) {
+        this.tokenTtlSeconds = seconds;
+    }
+
+    /**
+     * Delays token responses, so callers can be made to overlap.
+     *
+     * @param latency The delay before answering, or zero
+     */
+    public void delayTokens(Duration latency) {
+        this.tokenLatency = latency;
+    }
+
+    /**
+     * Makes the token endpoint answer with the given status instead of a token,
+     * or issue tokens again.
+     *
+     * @param status The status to send, or null to issue tokens
+     */
+    public void failTokens(HttpResponseStatus status) {
+        this.tokenFailure = status;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+        loops.dispose();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    private Mono<Void> weather(HttpServerRequest request, HttpServerResponse response) {
+        weatherCalls.incrementAndGet();
+        if (weatherRetryAfter != null) {
+            return throttled(response);
+        }
+        String city = queryParam(request, "q", "unknown");
+        citiesById.put(cityId(city), city);
+        return respond(response, weatherPayload(city));
+    }
+
+    private Mono<Void> group(HttpServerRequest request, HttpServerResponse response) {
+        groupCalls.incrementAndGet();
+        if (weatherRetryAfter != null) {
+            return throttled(response);
+        }
+        FixedResponse fixed = groupResponse;
+        if (fixed != null) {
+            return response.status(fixed.status())
+                    .header("Content-Type", "application/json")
+                    .sendString(Mono.just(fixed.body()))
+                    .then();
+        }
+        StringBuilder json = new StringBuilder("{\"list\":[");
+        int count = 0;
+        for (String id : queryParam(request, "id", "").split(",")) {
+            String city = id.isEmpty() ? null : citiesById.get(Integer.parseInt(id));
+            if (city != null) {
+                json.append(count++ > 0 ? "," : "").append(new String(weatherPayload(city), StandardCharsets.UTF_8));
+            }
+        }
+        json.append("],\"cnt\":").append(count).append('}');
+        return respond(response, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Void> recommendations(HttpServerRequest request, HttpServerResponse response) {
+        recommendationCalls.incrementAndGet();
+        if (!issuedTokens.isEmpty()) {
+            String authorization = request.requestHeaders().get("Authorization", "");
+            if (!issuedTokens.contains(authorization.replaceFirst("^Bearer ", ""))) {
+                return response.status(HttpResponseStatus.UNAUTHORIZED).send();
+            }
+        }
+        String seedGenres = queryParam(request, "seed_genres", "pop");
+        return respond(response, recommendationPayloads.computeIfAbsent(seedGenres, this::recommendationsPayload));
+    }
+
+    private Mono<Void> token(HttpServerRequest request, HttpServerResponse response) {
+        long call = tokenCalls.incrementAndGet();
+        HttpResponseStatus failure = tokenFailure;
+        Mono<Void> reply;
+        if (failure != null) {
+            reply = Mono.defer(() -> response.status(failure).send());
+        } else {
+            String accessToken = "stub-token-" + call;
+            String json = "{\"access_token\":\"" + accessToken + "\",\"token_type\":\"Bearer\","
+                    + "\"expires_in\":" + tokenTtlSeconds + "}";
+            reply = Mono.defer(() -> {
+                issuedTokens.add(accessToken);
+                return response
+                        .header("Content-Type", "application/json")
+                        .sendByteArray(Mono.just(json.getBytes(StandardCharsets.UTF_8)))
+                        .then();
+            });
+        }
+        Duration delay = tokenLatency;
+        return delay.isZero() ? reply : Mono.delay(delay).then(reply);
+    }
+
+    private Mono<Void> throttled(HttpServerResponse response) {
+        return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", Long.toString(weatherRetryAfter.toSeconds()))
+                .send();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, byte[] body) {
+        Mono<Void> reply;
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            reply = Mono.defer(() -> response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send());
+        } else {
+            reply = Mono.defer(() -> response
+                    .header("Content-Type", "application/json")
+                    .sendByteArray(Mono.just(body))
+                    .then());
+        }
+        return latency.isZero() ? reply : Mono.delay(latency).then(reply);
+    }
+
+    private static String queryParam(HttpServerRequest request, String name, String defaultValue) {
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    /**
+     * Builds a weather payload whose condition and temperature are stable per
+     * city, so a run exercises every mood without randomising cache behaviour.
+     */
+    private static byte[] weatherPayload(String city) {
+        int hash = cityId(city);
+        String condition = CONDITIONS[hash % CONDITIONS.length];
+        double temperature = (hash % 400) / 10.0 - 5;
+        String json = "{\"weather\":[{\"id\":800,\"main\":\"" + condition + "\",\"description\":\""
+                + condition.toLowerCase() + "\",\"icon\":\"01d\"}],"
+                + "\"main\":{\"temp\":" + temperature + ",\"feels_like\":" + temperature
+                + ",\"temp_min\":" + (temperature - 2) + ",\"temp_max\":" + (temperature + 2)
+                + ",\"humidity\":55},"
+                + "\"id\":" + hash + ",\"name\":\"" + city + "\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int cityId(String city) {
+        return city.toLowerCase().hashCode() & 0x7fffffff;
+    }
+
+    private byte[] recommendationsPayload(String seedGenres) {
+        StringBuilder json = new StringBuilder("{\"tracks\":[");
+        for (int i = 0; i < trackCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String id = Integer.toHexString((seedGenres + i).hashCode());
+            json.append("{\"id\":\"").append(id).append("\",")
+                    .append("\"name\":\"Track ").append(i).append(" (").append(seedGenres).append(")\",")
+                    .append("\"external_urls\":{\"spotify\":\"https://open.spotify.com/track/").append(id).append("\"},")
+                    .append("\"artists\":[{\"id\":\"artist").append(i % 7).append("\",\"name\":\"Artist ")
+                    .append(i % 7).append("\"}],")
+                    .append("\"album\":{\"id\":\"album").append(i % 5).append("\",\"name\":\"Album ")
+                    .append(i % 5).append("\",\"images\":[")
+                    .append("{\"url\":\"https://i.scdn.co/image/").append(id).append("-640\",\"height\":640,\"width\":640},")
+                    .append("{\"url\":\"https://i.scdn.co/image/").append(id).append("-300\",\"height\":300,\"width\":300},")
+                    .append("{\"url\":\"https://i.scdn.co/image/").append(id).append("-64\",\"height\":64,\"width\":64}]}}");
+        }
+        json.append("],\"seeds\":[");
+        String[] genres = seedGenres.split(",");
+        for (int i = 0; i < genres.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"afterFilteringSize\":250,\"afterRelinkingSize\":250,\"href\":null,\"id\":\"")
+                    .append(genres[i]).append("\",\"initialPoolSize\":250,\"type\":\"GENRE\"}");
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record FixedResponse(HttpResponseStatus status, String body) {}
+}
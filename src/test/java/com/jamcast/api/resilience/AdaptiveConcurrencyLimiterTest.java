@@ -0,0 +1,119 @@
+package com.jamcast.api.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        runWindows(limiter, 50, MILLI);
+
+        assertThat(limiter.getLimit()).isGreaterThan(40);
+    }
+
+    @Test
+    void backsOffWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        runWindows(limiter, 20, MILLI);
+        int grown = limiter.getLimit();
+
+        runWindows(limiter, 10, 20 * MILLI);
+
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void neverLeavesItsBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 30, 2.0, 0.5, 0.0, Duration.ZERO);
+
+        runWindows(limiter, 100, MILLI);
+        assertThat(limiter.getLimit()).isEqualTo(30);
+
+        runWindows(limiter, 100, 100 * MILLI);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void unsampledReleasesDoNotMoveTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        runWindows(limiter, 5, MILLI);
+        int limit = limiter.getLimit();
+
+        for (int window = 0; window < 20; window++) {
+            int admitted = fill(limiter, true);
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(-1);
+            }
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(limit);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void dropsShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(100);
+
+        assertThat(limiter.tryAcquire(false)).isTrue();
+        limiter.releaseDropped();
+
+        assertThat(limiter.getLimit()).isEqualTo(90);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void dropsShrinkTheLimitAtMostOncePerWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 1, 512, 2.0, 0.2, 0.0,
+                Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(false)).isTrue();
+            limiter.releaseDropped();
+        }
+
+        // The limiter was created less than a window ago
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void reservesPartOfTheLimitForPriorityRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 512, 2.0, 0.2, 0.25, Duration.ZERO);
+
+        assertThat(fill(limiter, false)).isEqualTo(6);
+        assertThat(limiter.tryAcquire(true)).isTrue();
+        assertThat(limiter.tryAcquire(true)).isTrue();
+        assertThat(limiter.tryAcquire(true)).isFalse();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 512, 2.0, 0.2, 0.0, Duration.ZERO);
+    }
+
+    /**
+     * Runs windows in which the whole limit is in flight and every request takes {@code rttNanos}.
+     */
+    private static void runWindows(AdaptiveConcurrencyLimiter limiter, int windows, long rttNanos) {
+        for (int window = 0; window < windows; window++) {
+            int admitted = fill(limiter, true);
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+
+    private static int fill(AdaptiveConcurrencyLimiter limiter, boolean priority) {
+        int admitted = 0;
+        while (limiter.tryAcquire(priority)) {
+            admitted++;
+        }
+        return admitted;
+    }
+}
@@ -0,0 +1,115 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.exception.OverloadException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Disposable> held = new ArrayList<>();
+
+    @Test
+    void cacheServableRequestsUseTheReserve() {
+        AdmissionControl admission = admission(8, 0.25);
+        hold(admission, false, 6);
+
+        assertThatThrownBy(() -> admission.admit(false, Mono.just("upstream")).block())
+                .isInstanceOf(OverloadException.class);
+        assertThat(admission.admit(true, Mono.just("cached")).block()).isEqualTo("cached");
+        assertThat(meterRegistry.counter(AdmissionControl.REJECTIONS_COUNTER, "source", "upstream").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shedsCacheServableRequestsAtTheFullLimit() {
+        AdmissionControl admission = admission(8, 0.25);
+        hold(admission, true, 8);
+
+        assertThatThrownBy(() -> admission.admit(true, Mono.just("cached")).block())
+                .isInstanceOf(OverloadException.class)
+                .satisfies(error -> assertThat(((OverloadException) error).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void releasesTheSlotWhenARequestFinishes() {
+        AdmissionControl admission = admission(8, 0.0);
+
+        for (int i = 0; i < 20; i++) {
+            admission.admit(false, Mono.just(i)).block();
+            assertThatThrownBy(() -> admission.admit(false, Mono.error(new IllegalStateException())).block())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(meterRegistry.get(AdmissionControl.INFLIGHT_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void timeoutsMakeTheLimitBackOff() {
+        AdmissionControl admission = admission(100, 0.0);
+
+        assertThatThrownBy(() -> admission.admit(false, Mono.error(new TimeoutException())).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+
+        assertThat(meterRegistry.get(AdmissionControl.LIMIT_GAUGE).gauge().value()).isEqualTo(90);
+    }
+
+    @Test
+    void fastFailuresDoNotGrowTheLimit() {
+        AdmissionControl admission = admission(20, 0.0);
+        // With the limit nearly used up, every failure would be a sample taken under load
+        hold(admission, false, 19);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThatThrownBy(() -> admission.admit(false, Mono.error(new IllegalStateException())).block())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(meterRegistry.get(AdmissionControl.LIMIT_GAUGE).gauge().value()).isEqualTo(20);
+    }
+
+    @Test
+    void batchesHoldASlotOutsideTheReserve() {
+        AdmissionControl admission = admission(4, 0.5);
+        held.add(admission.admitBatch(Flux.never()).subscribe());
+        held.add(admission.admitBatch(Flux.never()).subscribe());
+
+        assertThatThrownBy(() -> admission.admitBatch(Flux.just(1)).blockLast())
+                .isInstanceOf(OverloadException.class);
+        assertThat(admission.admit(true, Mono.just("cached")).block()).isEqualTo("cached");
+    }
+
+    @AfterEach
+    void releaseHeldRequests() {
+        held.forEach(Disposable::dispose);
+    }
+
+    private AdmissionControl admission(int limit, double reserve) {
+        ApiConfig.Admission config = new ApiConfig.Admission();
+        config.setInitialLimit(limit);
+        config.setMinLimit(1);
+        config.setCacheReserve(reserve);
+        config.setWindow(Duration.ZERO);
+        return new AdmissionControl(config, meterRegistry);
+    }
+
+    private void hold(AdmissionControl admission, boolean cacheServable, int requests) {
+        for (int i = 0; i < requests; i++) {
+            held.add(admission.admit(cacheServable, Mono.never()).subscribe());
+        }
+    }
+}
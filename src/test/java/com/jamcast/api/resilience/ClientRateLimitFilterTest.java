@@ -0,0 +1,134 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.controller.PlaylistController;
+import com.jamcast.api.exception.GlobalExceptionHandler;
+import com.jamcast.api.service.PlaylistResponseCache;
+import com.jamcast.api.service.PlaylistService;
+import com.jamcast.api.service.SpotifyService;
+import com.jamcast.api.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientRateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsRequestsBeyondTheBurstWithRetryAfter() {
+        WebTestClient client = singlePlaylistClient(limiter(3));
+
+        for (int i = 0; i < 3; i++) {
+            client.get().uri("/api/v1/playlist").exchange().expectStatus().isOk();
+        }
+        client.get().uri("/api/v1/playlist").exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Too many requests");
+        assertThat(meterRegistry.counter(ClientRateLimiter.REJECTIONS_COUNTER).count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownApiKeysShareTheCallersIpBucket() {
+        WebTestClient client = singlePlaylistClient(limiter(3));
+
+        for (int i = 0; i < 3; i++) {
+            client.get().uri("/api/v1/playlist").header("X-API-Key", "random-" + i).exchange()
+                    .expectStatus().isOk();
+        }
+        client.get().uri("/api/v1/playlist").header("X-API-Key", "random-3").exchange()
+                .expectStatus().isEqualTo(429);
+    }
+
+    @Test
+    void knownApiKeysGetTheirOwnBucket() {
+        WebTestClient client = singlePlaylistClient(limiter(3));
+
+        for (int i = 0; i < 3; i++) {
+            client.get().uri("/api/v1/playlist").exchange().expectStatus().isOk();
+        }
+        client.get().uri("/api/v1/playlist").header("X-API-Key", "partner-key").exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void otherPathsAreNotLimited() {
+        WebTestClient client = singlePlaylistClient(limiter(1));
+
+        for (int i = 0; i < 5; i++) {
+            client.get().uri("/api/v1/health").exchange().expectStatus().isOk();
+        }
+    }
+
+    @Test
+    void batchIsChargedPerCity() {
+        ClientRateLimiter limiter = limiter(5);
+        PlaylistService playlistService = mock(PlaylistService.class);
+        when(playlistService.generatePlaylists(anyList())).thenReturn(Flux.empty());
+        AdmissionControl admissionControl = new AdmissionControl(new ApiConfig.Admission(), meterRegistry);
+        PlaylistController controller = new PlaylistController(playlistService, mock(WeatherService.class),
+                mock(SpotifyService.class), mock(PlaylistResponseCache.class), admissionControl, limiter);
+        WebTestClient client = WebTestClient.bindToController(controller)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .webFilter(new ClientRateLimitFilter(limiter))
+                .build();
+
+        batch(client, List.of("Oslo", "Bergen", "Trondheim")).expectStatus().isOk();
+        batch(client, List.of("Paris", "Lyon", "Nice")).expectStatus().isEqualTo(429)
+                .expectHeader().exists("Retry-After");
+        // The batch path is charged by the controller, never twice by the filter
+        batch(client, List.of("Rome", "Milan")).expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec batch(WebTestClient client, List<String> cities) {
+        return client.post().uri("/api/v1/playlist/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("cities", cities))
+                .exchange();
+    }
+
+    private ClientRateLimiter limiter(int burst) {
+        ApiConfig apiConfig = new ApiConfig();
+        ApiConfig.ClientRateLimit config = apiConfig.getClientRateLimit();
+        config.setRequestsPerSecond(1);
+        config.setBurst(burst);
+        config.setApiKeys(List.of("partner-key"));
+        return new ClientRateLimiter(apiConfig, meterRegistry);
+    }
+
+    private static WebTestClient singlePlaylistClient(ClientRateLimiter limiter) {
+        return WebTestClient.bindToController(new StubController())
+                .webFilter(new ClientRateLimitFilter(limiter))
+                .build();
+    }
+
+    @RestController
+    static class StubController {
+
+        @GetMapping("/api/v1/playlist")
+        List<String> playlist() {
+            return Collections.emptyList();
+        }
+
+        @GetMapping("/api/v1/health")
+        String health() {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.jamcast.api.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a per-client rate limit check under contention: every thread hitting
+ * one client's bucket, and threads spread over many clients' buckets looked up
+ * the way {@link ClientRateLimiter} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TokenBucketBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private TokenBucket sharedBucket;
+    private Cache<String, TokenBucket> buckets;
+    private String[] clientKeys;
+
+    @Setup
+    public void setUp() {
+        long now = System.nanoTime();
+        sharedBucket = new TokenBucket(1_000_000, 1_000_000, now);
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+        clientKeys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientKeys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public long singleClient() {
+        return sharedBucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public long manyClients() {
+        long now = System.nanoTime();
+        String key = clientKeys[ThreadLocalRandom.current().nextInt(CLIENTS)];
+        return buckets.get(key, k -> new TokenBucket(10, 20, now)).tryAcquire(now);
+    }
+}
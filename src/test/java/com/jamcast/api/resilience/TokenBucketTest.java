@@ -0,0 +1,42 @@
+package com.jamcast.api.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsABurstThenPacesAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+    }
+
+    @Test
+    void chargesSeveralTokensAtOnce() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.tryAcquire(0, 3)).isZero();
+        assertThat(bucket.tryAcquire(0, 3)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(0, 2)).isZero();
+        assertThat(bucket.tryAcquire(0)).isPositive();
+    }
+
+    @Test
+    void requestLargerThanTheBucketNeedsAFullBucketAndLeavesDebt() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        bucket.tryAcquire(0);
+
+        assertThat(bucket.tryAcquire(0, 20)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 10, 20)).isZero();
+        // 20 tokens were charged against a full bucket of 5: 15 tokens of debt, plus the one asked for
+        assertThat(bucket.tryAcquire(SECOND / 10)).isEqualTo(SECOND * 16 / 10);
+    }
+}
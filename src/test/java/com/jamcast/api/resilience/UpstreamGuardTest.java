@@ -0,0 +1,95 @@
+package com.jamcast.api.resilience;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.exception.UpstreamThrottledException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpstreamGuard guard = new UpstreamGuard("test", new ApiConfig.Resilience(10),
+            CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), RateLimiterRegistry.ofDefaults(),
+            meterRegistry);
+
+    @Test
+    void readsRetryAfterInSeconds() {
+        assertThat(guard.retryAfter("7")).isEqualTo(Duration.ofSeconds(7));
+        assertThat(guard.retryAfter(" 0 ")).isZero();
+    }
+
+    @Test
+    void readsRetryAfterAsHttpDate() {
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+
+        assertThat(guard.retryAfter(date)).isBetween(Duration.ofSeconds(28), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void pastHttpDateMeansNoPause() {
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        assertThat(guard.retryAfter(date)).isZero();
+    }
+
+    @Test
+    void missingOrUnreadableRetryAfterFallsBackToThrottlePause() {
+        assertThat(guard.retryAfter(null)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(guard.retryAfter("")).isEqualTo(Duration.ofSeconds(1));
+        assertThat(guard.retryAfter("soon")).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void retryAfterIsCappedAtThrottleMaxPause() {
+        assertThat(guard.retryAfter("86400")).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void holdsCallsBackAfterUpstream429() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> throttled = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null));
+        });
+        Mono<String> healthy = Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+
+        assertThatThrownBy(() -> guard.protect(throttled).block()).isInstanceOf(WebClientResponseException.class);
+        assertThatThrownBy(() -> guard.protect(healthy).block())
+                .isInstanceOfSatisfying(UpstreamThrottledException.class, error ->
+                        assertThat(error.getRetryAfter()).isBetween(Duration.ofSeconds(29), Duration.ofSeconds(30)));
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.counter(UpstreamGuard.REJECTIONS_COUNTER,
+                "upstream", "test", "reason", "throttled").count()).isEqualTo(1);
+        assertThat(meterRegistry.get(UpstreamGuard.PACING_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void otherClientErrorsDoNotPause() {
+        Mono<String> notFound = Mono.error(WebClientResponseException.create(404, "Not Found",
+                new HttpHeaders(), new byte[0], null));
+
+        assertThatThrownBy(() -> guard.protect(notFound).block()).isInstanceOf(WebClientResponseException.class);
+        assertThat(guard.protect(Mono.just("ok")).block()).isEqualTo("ok");
+    }
+}
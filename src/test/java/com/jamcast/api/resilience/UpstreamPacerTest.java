@@ -0,0 +1,73 @@
+package com.jamcast.api.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamPacerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void letsEveryCallThroughUntilThrottled() {
+        UpstreamPacer pacer = new UpstreamPacer(Duration.ofSeconds(10), 0);
+
+        assertThat(pacer.tryAcquire(0)).isZero();
+        assertThat(pacer.tryAcquire(SECOND)).isZero();
+    }
+
+    @Test
+    void holdsEveryCallBackForThePause() {
+        UpstreamPacer pacer = new UpstreamPacer(Duration.ofSeconds(10), 0);
+        pacer.onThrottled(Duration.ofSeconds(5), 0);
+
+        assertThat(pacer.tryAcquire(0)).isEqualTo(5 * SECOND);
+        assertThat(pacer.tryAcquire(4 * SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void shorterPauseDoesNotCutALongerOneShort() {
+        UpstreamPacer pacer = new UpstreamPacer(Duration.ofSeconds(10), 0);
+        pacer.onThrottled(Duration.ofSeconds(5), 0);
+        pacer.onThrottled(Duration.ofSeconds(1), SECOND);
+
+        assertThat(pacer.tryAcquire(2 * SECOND)).isEqualTo(3 * SECOND);
+    }
+
+    @Test
+    void rampsCallsBackUpAfterThePause() {
+        UpstreamPacer pacer = new UpstreamPacer(Duration.ofSeconds(10), 0);
+        pacer.onThrottled(Duration.ofSeconds(5), 0);
+
+        double atResume = admittedShare(pacer, 5 * SECOND);
+        double midRamp = admittedShare(pacer, 10 * SECOND);
+        double afterRamp = admittedShare(pacer, 15 * SECOND);
+
+        assertThat(atResume).isBetween(0.05, 0.15);
+        assertThat(midRamp).isBetween(0.5, 0.6);
+        assertThat(afterRamp).isEqualTo(1.0);
+    }
+
+    @Test
+    void callsTurnedAwayDuringRampAreToldToComeBackSoon() {
+        UpstreamPacer pacer = new UpstreamPacer(Duration.ofSeconds(10), 0);
+        pacer.onThrottled(Duration.ofSeconds(5), 0);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(pacer.tryAcquire(5 * SECOND)).isIn(0L, SECOND);
+        }
+    }
+
+    private static double admittedShare(UpstreamPacer pacer, long now) {
+        int admitted = 0;
+        int calls = 20_000;
+        for (int i = 0; i < calls; i++) {
+            if (pacer.tryAcquire(now) == 0) {
+                admitted++;
+            }
+        }
+        return (double) admitted / calls;
+    }
+}
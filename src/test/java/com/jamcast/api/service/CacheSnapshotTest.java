@@ -0,0 +1,159 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.perf.Payloads;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheSnapshotTest {
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final SpotifyService spotifyService = mock(SpotifyService.class);
+    private Path path;
+    private CacheSnapshot snapshot;
+
+    @BeforeEach
+    void setUp(@TempDir Path directory) {
+        path = directory.resolve("snapshots/cache.snapshot");
+        ApiConfig apiConfig = Payloads.apiConfig();
+        apiConfig.getSnapshot().setPath(path.toString());
+        snapshot = new CacheSnapshot(weatherService, spotifyService, Payloads.objectMapper(), apiConfig);
+    }
+
+    @Test
+    void restoresWhatWasWritten() {
+        WeatherResponse weather = weather("London", "Rain");
+        SpotifyRecommendationsResponse recommendations = recommendations("Track 1", "Track 2");
+        when(weatherService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("city:london", weather, Duration.ofMinutes(10))));
+        when(spotifyService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("pop,indie-pop", recommendations, Duration.ofMinutes(30))));
+
+        snapshot.persist();
+        snapshot.load();
+
+        ArgumentCaptor<WeatherResponse> restoredWeather = ArgumentCaptor.forClass(WeatherResponse.class);
+        ArgumentCaptor<Duration> weatherTtl = ArgumentCaptor.forClass(Duration.class);
+        verify(weatherService).restoreCache(eq("city:london"), restoredWeather.capture(), weatherTtl.capture());
+        assertThat(restoredWeather.getValue()).usingRecursiveComparison().isEqualTo(weather);
+        assertThat(weatherTtl.getValue()).isBetween(Duration.ofMinutes(9), Duration.ofMinutes(10));
+
+        ArgumentCaptor<SpotifyRecommendationsResponse> restoredRecommendations =
+                ArgumentCaptor.forClass(SpotifyRecommendationsResponse.class);
+        verify(spotifyService).restoreCache(eq("pop,indie-pop"), restoredRecommendations.capture(), any());
+        assertThat(Arrays.stream(restoredRecommendations.getValue().getTracks()).map(SpotifyTrack::getName))
+                .containsExactly("Track 1", "Track 2");
+    }
+
+    @Test
+    void downtimeIsSubtractedAndExpiredEntriesAreDropped() throws Exception {
+        when(weatherService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("city:london", weather("London", "Rain"), Duration.ofMinutes(10)),
+                new CacheSnapshot.Entry<>("city:oslo", weather("Oslo", "Snow"), Duration.ofMinutes(2))));
+        when(spotifyService.snapshotCache()).thenReturn(List.of());
+        snapshot.persist();
+
+        // Pretend the snapshot was written five minutes ago
+        writtenAt(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis());
+        snapshot.load();
+
+        ArgumentCaptor<Duration> expiresIn = ArgumentCaptor.forClass(Duration.class);
+        verify(weatherService).restoreCache(eq("city:london"), any(), expiresIn.capture());
+        assertThat(expiresIn.getValue()).isBetween(Duration.ofMinutes(4), Duration.ofMinutes(5));
+        verify(weatherService, never()).restoreCache(eq("city:oslo"), any(), any());
+    }
+
+    @Test
+    void unknownVersionIsIgnored() throws Exception {
+        when(weatherService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("city:london", weather("London", "Rain"), Duration.ofMinutes(10))));
+        when(spotifyService.snapshotCache()).thenReturn(List.of());
+        snapshot.persist();
+
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+        Files.write(path, bytes);
+        snapshot.load();
+
+        verify(weatherService, never()).restoreCache(anyString(), any(), any());
+    }
+
+    @Test
+    void truncatedFileRestoresNothing() throws Exception {
+        when(weatherService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("city:london", weather("London", "Rain"), Duration.ofMinutes(10))));
+        when(spotifyService.snapshotCache()).thenReturn(List.of(
+                new CacheSnapshot.Entry<>("pop,indie-pop", recommendations("Track 1"), Duration.ofMinutes(30))));
+        snapshot.persist();
+        byte[] bytes = Files.readAllBytes(path);
+
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(path, Arrays.copyOf(bytes, length));
+            snapshot.load();
+        }
+
+        verify(weatherService, never()).restoreCache(anyString(), any(), any());
+        verify(spotifyService, never()).restoreCache(anyString(), any(), any());
+    }
+
+    @Test
+    void missingFileOrPathLeavesTheCachesEmpty() {
+        snapshot.load();
+
+        ApiConfig apiConfig = Payloads.apiConfig();
+        CacheSnapshot disabled = new CacheSnapshot(weatherService, spotifyService, Payloads.objectMapper(), apiConfig);
+        disabled.persist();
+        disabled.load();
+
+        assertThat(path).doesNotExist();
+        verify(weatherService, never()).snapshotCache();
+        verify(weatherService, never()).restoreCache(anyString(), any(), any());
+    }
+
+    private void writtenAt(long epochMillis) throws Exception {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putLong(8, epochMillis);
+        Files.write(path, bytes);
+    }
+
+    private static WeatherResponse weather(String city, String condition) {
+        WeatherResponse.Weather weather = new WeatherResponse.Weather();
+        weather.setMain(condition);
+        WeatherResponse response = new WeatherResponse();
+        response.setCityName(city);
+        response.setWeather(List.of(weather));
+        return response;
+    }
+
+    private static SpotifyRecommendationsResponse recommendations(String... names) {
+        SpotifyRecommendationsResponse response = new SpotifyRecommendationsResponse();
+        response.setTracks(Arrays.stream(names).map(name -> {
+            SpotifyTrack track = new SpotifyTrack();
+            track.setId(name);
+            track.setName(name);
+            return track;
+        }).toArray(SpotifyTrack[]::new));
+        return response;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jamcast.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeohashTest {
+
+    @Test
+    void encodesKnownPositions() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(42.605, -5.603, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(51.5074, -0.1278, 5)).isEqualTo("gcpvj");
+    }
+
+    @Test
+    void longerHashesRefineShorterOnes() {
+        String coarse = Geohash.encode(48.8566, 2.3522, 4);
+        String fine = Geohash.encode(48.8566, 2.3522, 9);
+
+        assertThat(fine).startsWith(coarse);
+    }
+
+    @Test
+    void decodesToTheCellCenter() {
+        double[] center = Geohash.decodeCenter("ezs42");
+
+        assertThat(center[0]).isCloseTo(42.60498046875, within(1e-9));
+        assertThat(center[1]).isCloseTo(-5.60302734375, within(1e-9));
+        assertThat(Geohash.encode(center[0], center[1], 5)).isEqualTo("ezs42");
+    }
+
+    @Test
+    void positionsRoundToTheCellContainingThem() {
+        // ezs42 spans latitudes 42.583 to 42.627 and longitudes -5.625 to -5.581
+        assertThat(Geohash.encode(42.584, -5.624, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(42.626, -5.582, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(42.628, -5.603, 5)).isNotEqualTo("ezs42");
+        assertThat(Geohash.encode(42.605, -5.580, 5)).isNotEqualTo("ezs42");
+    }
+
+    @Test
+    void rejectsInvalidHashes() {
+        assertThat(Geohash.isValid("ezs42")).isTrue();
+        assertThat(Geohash.isValid("")).isFalse();
+        assertThat(Geohash.isValid("ezs4a")).isFalse();
+        assertThat(Geohash.isValid("EZS42")).isFalse();
+        assertThat(Geohash.isValid("0123456789bcd")).isFalse();
+        assertThatThrownBy(() -> Geohash.decodeCenter("ezs4a")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
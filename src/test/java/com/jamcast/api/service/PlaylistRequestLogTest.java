@@ -0,0 +1,82 @@
+package com.jamcast.api.service;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaylistRequestLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(PlaylistRequestLog.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void captureLog() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void releaseLog() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void cityCannotForgeALogLine() {
+        PlaylistRequestLog requestLog = new PlaylistRequestLog(
+                "Paris\" outcome=ok\r\nplaylist city=\"Nowhere\\");
+
+        requestLog.finish("error", new IllegalStateException("bad\nrequest"));
+
+        assertThat(appender.list).hasSize(1);
+        String line = appender.list.get(0).getFormattedMessage();
+        assertThat(line).doesNotContain("\r", "\n")
+                .startsWith("playlist city=\"Paris\\\" outcome=ok\\r\\nplaylist city=\\\"Nowhere\\\\\" outcome=error")
+                .endsWith(" error=\"bad\\nrequest\"");
+    }
+
+    @Test
+    void escapeLeavesPlainValuesAlone() {
+        String city = "São Paulo";
+
+        assertThat(PlaylistRequestLog.escape(city)).isSameAs(city);
+        assertThat(PlaylistRequestLog.escape(null)).isNull();
+        assertThat(PlaylistRequestLog.escape("a\u0000b\u2028c")).isEqualTo("a\\u0000b\\u2028c");
+    }
+
+    @Test
+    void concurrentFinishesLogOnce() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            PlaylistRequestLog requestLog = new PlaylistRequestLog("London");
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (String outcome : List.of("ok", "cancelled", "error")) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    requestLog.finish(outcome, null);
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            go.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        assertThat(appender.list).hasSize(200);
+    }
+}
@@ -0,0 +1,88 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.codec.PlaylistResponseEncoder;
+import com.jamcast.api.dto.PlaylistResponse;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.service.PlaylistResponseCache.SerializedPlaylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaylistResponseCacheTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+    private final TrackStore trackStore = new TrackStore();
+    private final PlaylistResponseCache cache = new PlaylistResponseCache(
+            new PlaylistResponseEncoder(pipelineMetrics), pipelineMetrics, trackStore, Payloads.apiConfig());
+
+    @Test
+    void cachedPlaylistsAreWrittenAsJacksonWouldAndShareTheirTracks() throws Exception {
+        PlaylistResponse rainy = playlist("Rainy Day in São Paulo", "Rain", "calm", "São Paulo", tracks(0, 20));
+        PlaylistResponse cloudy = playlist("Cloudy \"Köln\"", "Clouds", "calm", "Köln", tracks(10, 20));
+
+        SerializedPlaylist first = cache.serialize(rainy, MAX_AGE);
+        SerializedPlaylist second = cache.serialize(cloudy, MAX_AGE);
+
+        assertThat(first.json()).isEqualTo(Payloads.objectMapper().writeValueAsBytes(rainy));
+        assertThat(second.json()).isEqualTo(Payloads.objectMapper().writeValueAsBytes(cloudy));
+        assertThat(first.trackCount()).isEqualTo(20);
+        assertThat(trackStore.size()).isEqualTo(30);
+        assertThat(cache.getIfPresent("São Paulo", "Rain", "calm")).isSameAs(first);
+        assertThat(cache.getIfPresent("São Paulo", "Rain", "calm").eTag()).isEqualTo(first.eTag());
+    }
+
+    @Test
+    void firstPlaylistCachedForAKeyWins() {
+        SerializedPlaylist first = cache.serialize(playlist("t", "Clear", "happy", "Oslo", tracks(0, 2)), MAX_AGE);
+        SerializedPlaylist second = cache.serialize(playlist("t", "Clear", "happy", "Oslo", tracks(5, 2)), MAX_AGE);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void zeroMaxAgeIsNeitherCachedNorStored() throws Exception {
+        PlaylistResponse response = playlist("t", "Clear", "happy", "Oslo", tracks(0, 2));
+
+        SerializedPlaylist serialized = cache.serialize(response, Duration.ZERO);
+
+        assertThat(serialized.json()).isEqualTo(Payloads.objectMapper().writeValueAsBytes(response));
+        assertThat(cache.getIfPresent("Oslo", "Clear", "happy")).isNull();
+        assertThat(trackStore.size()).isZero();
+    }
+
+    @Test
+    void playlistsWithoutTrackListsAreCachedWhole() throws Exception {
+        PlaylistResponse noTracks = playlist("t", "Clear", "happy", "Oslo", null);
+        PlaylistResponse nullTrack = playlist("t", "Rain", "calm", "Oslo", Arrays.asList(tracks(0, 1).get(0), null));
+
+        assertThat(cache.serialize(noTracks, MAX_AGE).json())
+                .isEqualTo(Payloads.objectMapper().writeValueAsBytes(noTracks));
+        assertThat(cache.serialize(nullTrack, MAX_AGE).json())
+                .isEqualTo(Payloads.objectMapper().writeValueAsBytes(nullTrack));
+        assertThat(trackStore.size()).isZero();
+    }
+
+    private static PlaylistResponse playlist(String title, String condition, String mood, String city,
+                                             List<PlaylistTrack> tracks) {
+        return new PlaylistResponse(title, condition, mood, tracks, city);
+    }
+
+    private static List<PlaylistTrack> tracks(int start, int count) {
+        List<PlaylistTrack> tracks = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            tracks.add(new PlaylistTrack("Track " + i, "Artist " + (i % 7),
+                    "https://open.spotify.com/track/" + i, "Album " + (i % 5)));
+        }
+        return tracks;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jamcast.api.service;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistRequest;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.dto.PlaylistStreamEvent;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.metrics.PipelineMetrics;
+import com.jamcast.api.perf.Payloads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlaylistServiceTest {
+
+    private static final WeatherLocation OSLO = WeatherLocation.city("Oslo");
+
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final SpotifyService spotifyService = mock(SpotifyService.class);
+    private final WeatherResponse weather = weather("Clear");
+    private final Logger requestLogger = (Logger) LoggerFactory.getLogger(PlaylistRequestLog.class);
+    private final ListAppender<ILoggingEvent> requestLog = new ListAppender<>();
+    private CityRequestTracker cityRequestTracker;
+    private PlaylistService playlistService;
+
+    @BeforeEach
+    void setUp() {
+        requestLog.start();
+        requestLogger.addAppender(requestLog);
+
+        when(weatherService.locate(any(PlaylistRequest.class))).thenReturn(OSLO);
+        when(weatherService.getWeather(OSLO)).thenReturn(Mono.just(weather));
+        when(weatherService.getCachedWeather(OSLO)).thenReturn(weather);
+        when(weatherService.getRemainingTtl(OSLO)).thenReturn(Duration.ofMinutes(5));
+        when(weatherService.mapWeatherToMood(any())).thenReturn("happy");
+        when(weatherService.generatePlaylistTitle(anyString(), anyString())).thenReturn("Sunny Vibes in Oslo");
+        SpotifyTrack track = new SpotifyTrack();
+        track.setName("Track");
+        SpotifyRecommendationsResponse recommendations = new SpotifyRecommendationsResponse();
+        recommendations.setTracks(new SpotifyTrack[] {track});
+        when(spotifyService.getRecommendationsByMood("happy")).thenReturn(Mono.just(recommendations));
+        when(spotifyService.convertToPlaylistTracks(any()))
+                .thenReturn(List.of(new PlaylistTrack("Track", "Artist", "https://open.spotify.com/track/1", "Album")));
+        when(spotifyService.convertToPlaylistTrack(any()))
+                .thenReturn(new PlaylistTrack("Track", "Artist", "https://open.spotify.com/track/1", "Album"));
+
+        ApiConfig apiConfig = Payloads.apiConfig();
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+        TrackStore trackStore = new TrackStore();
+        cityRequestTracker = new CityRequestTracker(apiConfig);
+        playlistService = new PlaylistService(weatherService, spotifyService, apiConfig, pipelineMetrics,
+                cityRequestTracker, trackStore,
+                new PlaylistResponseCache(null, pipelineMetrics, trackStore, apiConfig));
+    }
+
+    @AfterEach
+    void releaseLog() {
+        requestLogger.detachAppender(requestLog);
+    }
+
+    @Test
+    void streamedPlaylistIsLoggedAndCountedForWarmUp() {
+        List<PlaylistStreamEvent> events = playlistService.streamPlaylist(new PlaylistRequest("Oslo"))
+                .collectList().block();
+
+        assertThat(events).hasSize(2);
+        assertThat(cityRequestTracker.topCitiesAndDecay(10)).containsExactly("Oslo");
+        assertThat(requestLines()).singleElement().asString()
+                .startsWith("playlist city=\"Oslo\" outcome=ok condition=Clear mood=happy tracks=1 ");
+    }
+
+    @Test
+    void failedStreamIsLoggedAsAnError() {
+        when(spotifyService.getRecommendationsByMood("happy"))
+                .thenReturn(Mono.error(new IllegalStateException("Spotify is down")));
+
+        assertThatThrownBy(() -> playlistService.streamPlaylist(new PlaylistRequest("Oslo")).blockLast())
+                .hasMessage("Spotify is down");
+
+        assertThat(requestLines()).singleElement().asString()
+                .contains(" outcome=error ", " mood=happy ")
+                .endsWith(" error=\"Spotify is down\"");
+    }
+
+    @Test
+    void cancelledStreamIsLoggedAsCancelled() {
+        when(spotifyService.getRecommendationsByMood("happy")).thenReturn(Mono.never());
+
+        // The client disconnects after the header
+        assertThat(playlistService.streamPlaylist(new PlaylistRequest("Oslo")).blockFirst()).isNotNull();
+
+        assertThat(requestLines()).singleElement().asString().contains(" outcome=cancelled ");
+        assertThat(cityRequestTracker.topCitiesAndDecay(10)).containsExactly("Oslo");
+    }
+
+    @Test
+    void streamsForCoordinatesAreNotCountedForWarmUp() {
+        playlistService.streamPlaylist(new PlaylistRequest(59.91, 10.75)).blockLast();
+
+        assertThat(cityRequestTracker.topCitiesAndDecay(10)).isEmpty();
+        assertThat(requestLines()).singleElement().asString().contains(" outcome=ok ");
+    }
+
+    @Test
+    void precomputedPlaylistExpiresWithItsWeather() throws InterruptedException {
+        when(weatherService.getRemainingTtl(OSLO)).thenReturn(Duration.ofMillis(200));
+
+        assertThat(playlistService.precomputePlaylist("Oslo").block()).isNotNull();
+        assertThat(playlistService.generatePlaylist(new PlaylistRequest("Oslo")).block().getTracks()).hasSize(1);
+        verify(spotifyService, times(1)).getRecommendationsByMood("happy");
+
+        Thread.sleep(300);
+        playlistService.generatePlaylist(new PlaylistRequest("Oslo")).block();
+        verify(spotifyService, times(2)).getRecommendationsByMood("happy");
+    }
+
+    @Test
+    void playlistsBuiltFromStaleWeatherAreNotPrecomputed() {
+        // The last known weather is served, while nothing is cached for the city
+        when(weatherService.getCachedWeather(OSLO)).thenReturn(null);
+        when(weatherService.getRemainingTtl(OSLO)).thenReturn(Duration.ZERO);
+
+        assertThat(playlistService.precomputePlaylist("Oslo").block()).isNull();
+        assertThat(playlistService.getCacheSize()).isZero();
+        assertThat(playlistService.isCacheServable(new PlaylistRequest("Oslo"))).isFalse();
+    }
+
+    @Test
+    void playlistsBuiltFromReplacedWeatherAreNotPrecomputed() {
+        // A fresh entry with another condition was cached while the stale weather was served
+        when(weatherService.getCachedWeather(OSLO)).thenReturn(weather("Rain"));
+
+        assertThat(playlistService.precomputePlaylist("Oslo").block()).isNull();
+        assertThat(playlistService.getCacheSize()).isZero();
+    }
+
+    private List<String> requestLines() {
+        return requestLog.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    private static WeatherResponse weather(String condition) {
+        WeatherResponse.Weather main = new WeatherResponse.Weather();
+        main.setMain(condition);
+        WeatherResponse weather = new WeatherResponse();
+        weather.setWeather(List.of(main));
+        return weather;
+    }
+}
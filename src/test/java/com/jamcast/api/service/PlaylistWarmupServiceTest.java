@@ -0,0 +1,98 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.cache.SharedCache;
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlaylistWarmupServiceTest {
+
+    private final PlaylistService playlistService = mock(PlaylistService.class);
+    private final WeatherService weatherService = mock(WeatherService.class);
+    private final CityRequestTracker cityRequestTracker = mock(CityRequestTracker.class);
+    private final SharedCache sharedCache = mock(SharedCache.class);
+    private final ApiConfig apiConfig = new ApiConfig();
+    private PlaylistWarmupService warmup;
+
+    @BeforeEach
+    void setUp() {
+        apiConfig.getWarmup().setCities(List.of("London", "Paris"));
+        apiConfig.getWarmup().setInterval(Duration.ofMillis(100));
+        when(cityRequestTracker.topCitiesAndDecay(anyInt())).thenReturn(List.of());
+        when(sharedCache.tryLease(anyString(), any())).thenReturn(Mono.just(true));
+        when(weatherService.refreshWeatherForCities(any(), anyInt(), any())).thenReturn(Mono.just(2L));
+        warmup = new PlaylistWarmupService(playlistService, weatherService, cityRequestTracker, sharedCache, apiConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warmup.stop();
+    }
+
+    @Test
+    void startDoesNotWaitForTheFirstCycle() {
+        when(playlistService.precomputePlaylist(anyString())).thenReturn(Mono.never());
+
+        long start = System.nanoTime();
+        warmup.start();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        verify(playlistService, timeout(1000)).precomputePlaylist("London");
+        // The stuck cycle holds back the next one
+        verify(weatherService, after(300).times(1)).refreshWeatherForCities(any(), anyInt(), any());
+    }
+
+    @Test
+    void failedCycleDoesNotStopTheNextOnes() {
+        when(playlistService.precomputePlaylist(anyString())).thenReturn(Mono.just(new PlaylistResponse()));
+        when(weatherService.refreshWeatherForCities(any(), anyInt(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("group endpoint down")))
+                .thenReturn(Mono.just(2L));
+
+        warmup.start();
+
+        verify(weatherService, timeout(2000).atLeast(3)).refreshWeatherForCities(any(), anyInt(), any());
+        verify(playlistService, atLeast(2)).precomputePlaylist("Paris");
+    }
+
+    @Test
+    void failedCitySelectionDoesNotStopTheNextCycles() {
+        when(playlistService.precomputePlaylist(anyString())).thenReturn(Mono.just(new PlaylistResponse()));
+        when(cityRequestTracker.topCitiesAndDecay(anyInt()))
+                .thenThrow(new IllegalStateException("tracker broken"))
+                .thenReturn(List.of("Rome"));
+
+        assertThat(warmup.warmUp().block()).isZero();
+        warmup.start();
+
+        verify(playlistService, timeout(2000)).precomputePlaylist("Rome");
+        verify(weatherService, atLeast(1)).refreshWeatherForCities(any(), anyInt(), any());
+    }
+
+    @Test
+    void warmUpCountsPrecomputedPlaylists() {
+        when(playlistService.precomputePlaylist("London")).thenReturn(Mono.just(new PlaylistResponse()));
+        when(playlistService.precomputePlaylist("Paris")).thenReturn(Mono.error(new IllegalStateException("no weather")));
+
+        assertThat(warmup.warmUp().block()).isEqualTo(1L);
+        verify(playlistService, times(1)).precomputePlaylist("Paris");
+    }
+}
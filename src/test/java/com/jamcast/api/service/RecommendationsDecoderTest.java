@@ -0,0 +1,186 @@
+package com.jamcast.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.perf.Payloads;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the streaming decoder against Jackson's data binding, however the
+ * body is split into buffers.
+ */
+class RecommendationsDecoderTest {
+
+    /**
+     * Tracks with escapes, multi-byte UTF-8, nulls, missing fields, and unknown
+     * fields nested at every level, some named like the wanted ones.
+     */
+    private static final String CRAFTED = """
+            {"seeds": [{"id": "pop", "name": "seed", "tracks": [{"id": "not-a-track"}]}],
+             "meta": {"tracks": [{"id": "nested", "name": "nested"}]},
+             "tracks": [
+              {"id": "1", "name": "Say \\"hi\\" \\\\ \\u00e9\\ud83c\\udfb5\\n",
+               "external_urls": {"spotify": "https://open.spotify.com/track/1", "other": {"spotify": "x"}},
+               "artists": [{"name": "São Paulo 東京 🎵", "id": "a1", "external_urls": {"spotify": "y"}},
+                           {"name": "Second artist"}],
+               "album": {"name": "Álbum", "artists": [{"name": "Album artist"}], "images": [{"url": "u", "sizes": [[1, 2]]}]},
+               "linked_from": {"id": "linked", "name": "linked", "album": {"name": "linked album"}},
+               "popularity": 42, "explicit": false, "preview_url": null, "markets": ["AD", ["nested"]]},
+              {"name": null, "external_urls": null, "artists": [], "album": null},
+              {"id": "3", "external_urls": {"spotify": null}, "artists": [{"name": null}], "album": {"name": null}},
+              {"id": "4", "artists": [{"id": "no-name"}, {"name": "Not first"}], "album": {}},
+              {}
+             ],
+             "after": {"tracks": [{"id": "after"}]}}
+            """;
+
+    private final ObjectMapper objectMapper = Payloads.objectMapper();
+    private final RecommendationsDecoder decoder = new RecommendationsDecoder();
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+    @Test
+    void recordedPayloadMatchesJackson() throws Exception {
+        byte[] json = Payloads.load(Payloads.SPOTIFY_RECOMMENDATIONS);
+        List<String> expected = project(objectMapper.readValue(json, SpotifyRecommendationsResponse.class));
+
+        assertThat(expected).hasSizeGreaterThan(1);
+        assertThat(project(decoder.decode(json))).isEqualTo(expected);
+        for (int chunkSize : new int[] {1, 2, 3, 7, 64, 8192}) {
+            assertThat(project(decodeInChunks(json, chunkSize))).as("chunk size %d", chunkSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void craftedBodyMatchesJackson() throws Exception {
+        byte[] json = CRAFTED.getBytes(StandardCharsets.UTF_8);
+        List<String> expected = project(objectMapper.readValue(json, SpotifyRecommendationsResponse.class));
+
+        assertThat(expected).containsExactly(
+                "1|Say \"hi\" \\ é🎵\n|https://open.spotify.com/track/1|São Paulo 東京 🎵|Álbum",
+                "null|null|null|null|null",
+                "3|null|null|null|null",
+                "4|null|null|null|null",
+                "null|null|null|null|null");
+        assertThat(project(decoder.decode(json))).isEqualTo(expected);
+    }
+
+    @Test
+    void everySplitOfTheBodyDecodesTheSame() throws Exception {
+        byte[] json = CRAFTED.getBytes(StandardCharsets.UTF_8);
+        List<String> expected = project(objectMapper.readValue(json, SpotifyRecommendationsResponse.class));
+
+        // Covers splits inside escapes, surrogate pairs and multi-byte UTF-8 sequences
+        for (int split = 1; split < json.length; split++) {
+            List<DataBuffer> buffers = List.of(
+                    buffer(Arrays.copyOfRange(json, 0, split)),
+                    buffer(Arrays.copyOfRange(json, split, json.length)));
+            assertThat(project(decoder.decode(Flux.fromIterable(buffers)).block()))
+                    .as("split at %d", split).isEqualTo(expected);
+            assertReleased(buffers);
+        }
+        assertThat(project(decodeInChunks(json, 1))).isEqualTo(expected);
+    }
+
+    @Test
+    void emptyAndEmptyTracksBodiesDecodeToNoTracks() {
+        assertThat(decoder.decode("{}".getBytes(StandardCharsets.UTF_8)).getTracks()).isEmpty();
+        assertThat(decoder.decode("{\"tracks\": []}".getBytes(StandardCharsets.UTF_8)).getTracks()).isEmpty();
+        assertThat(decoder.decode("{\"tracks\": null}".getBytes(StandardCharsets.UTF_8)).getTracks()).isEmpty();
+        assertThat(decoder.decode("{\"tracks\": {\"id\": \"1\"}}".getBytes(StandardCharsets.UTF_8)).getTracks())
+                .isEmpty();
+    }
+
+    @Test
+    void everyTruncationIsRejected() {
+        byte[] json = CRAFTED.strip().getBytes(StandardCharsets.UTF_8);
+
+        for (int length = 0; length < json.length; length++) {
+            byte[] truncated = Arrays.copyOf(json, length);
+            assertThatThrownBy(() -> decoder.decode(truncated))
+                    .as("truncated to %d bytes", length)
+                    .isInstanceOf(DecodingException.class);
+        }
+    }
+
+    @Test
+    void malformedBodiesAreRejected() {
+        for (String body : List.of("not json", "{\"tracks\": [}", "{\"tracks\": [{\"id\": \"1\",}]}",
+                "{\"tracks\": [{\"id\": \"1\"]}", "{\"tracks\": []}}", "{\"name\": \"\\x\"}")) {
+            assertThatThrownBy(() -> decoder.decode(body.getBytes(StandardCharsets.UTF_8)))
+                    .as(body)
+                    .isInstanceOf(DecodingException.class);
+        }
+    }
+
+    @Test
+    void buffersAreReleasedWhenDecodingFails() {
+        byte[] json = "{\"tracks\": [{\"id\": \"1\", \"name\": tru}]}".getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        // Buffers are allocated as they are requested, as the network delivers them
+        Flux<DataBuffer> body = Flux.range(0, json.length).map(i -> {
+            DataBuffer buffer = buffer(new byte[] {json[i]});
+            buffers.add(buffer);
+            return buffer;
+        });
+
+        assertThatThrownBy(() -> decoder.decode(body).block()).isInstanceOf(DecodingException.class);
+        assertThat(buffers).hasSizeLessThan(json.length);
+        assertReleased(buffers);
+
+        List<DataBuffer> truncated = List.of(buffer(Arrays.copyOf(json, 10)));
+        assertThatThrownBy(() -> decoder.decode(Flux.fromIterable(truncated)).block())
+                .isInstanceOf(DecodingException.class);
+        assertReleased(truncated);
+    }
+
+    private SpotifyRecommendationsResponse decodeInChunks(byte[] json, int chunkSize) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < json.length; offset += chunkSize) {
+            buffers.add(buffer(Arrays.copyOfRange(json, offset, Math.min(json.length, offset + chunkSize))));
+        }
+        SpotifyRecommendationsResponse response = decoder.decode(Flux.fromIterable(buffers)).block();
+        assertReleased(buffers);
+        return response;
+    }
+
+    private DataBuffer buffer(byte[] bytes) {
+        return bufferFactory.wrap(bytes);
+    }
+
+    private static void assertReleased(List<DataBuffer> buffers) {
+        for (DataBuffer buffer : buffers) {
+            assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero();
+        }
+    }
+
+    /**
+     * Reduces tracks to the fields a playlist uses, in order.
+     */
+    private static List<String> project(SpotifyRecommendationsResponse response) {
+        List<String> tracks = new ArrayList<>();
+        for (SpotifyTrack track : response.getTracks()) {
+            String artist = track.getArtists() == null || track.getArtists().length == 0
+                    ? null : track.getArtists()[0].getName();
+            tracks.add(track.getId() + "|" + track.getName()
+                    + "|" + (track.getExternalUrls() == null ? null : track.getExternalUrls().getSpotify())
+                    + "|" + artist
+                    + "|" + (track.getAlbum() == null ? null : track.getAlbum().getName()));
+        }
+        return tracks;
+    }
+}
@@ -0,0 +1,57 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.dto.SpotifyRecommendationsResponse;
+import com.jamcast.api.perf.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU and allocation cost of the Spotify conversion hot paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpotifyServiceBenchmark {
+
+    private SpotifyService spotifyService;
+    private SpotifyRecommendationsResponse recommendations;
+
+    @Setup
+    public void setUp() throws IOException {
+        ApiConfig apiConfig = Payloads.apiConfig();
+        spotifyService = new SpotifyService(WebClient.create(), apiConfig,
+                Payloads.guard("spotify", apiConfig.getSpotify().getResilience()),
+                new SpotifyTokenManager(WebClient.create(), apiConfig),
+                new TrackCatalog(Payloads.objectMapper(), apiConfig), Payloads.sharedCache(apiConfig));
+        recommendations = Payloads.objectMapper().readValue(
+                Payloads.load(Payloads.SPOTIFY_RECOMMENDATIONS), SpotifyRecommendationsResponse.class);
+    }
+
+    @Benchmark
+    public List<PlaylistTrack> convertToPlaylistTracks() {
+        return spotifyService.convertToPlaylistTracks(recommendations.getTracks());
+    }
+
+    @Benchmark
+    public String buildRecommendationsUrl() {
+        return spotifyService.buildRecommendationsUrl("pop,indie-pop,summer");
+    }
+}
@@ -0,0 +1,155 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.perf.UpstreamStubServer;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Client credentials tokens from the token endpoint of {@link UpstreamStubServer}.
+ */
+class SpotifyTokenManagerTest {
+
+    private final UpstreamStubServer upstream = new UpstreamStubServer(Duration.ZERO, 0, 1).start();
+    private ApiConfig apiConfig;
+    private SpotifyTokenManager tokenManager;
+
+    @BeforeEach
+    void setUp() {
+        apiConfig = Payloads.apiConfig();
+        apiConfig.getSpotify().setClientId("client");
+        apiConfig.getSpotify().setClientSecret("secret");
+        apiConfig.getSpotify().setTokenUrl(upstream.tokenUrl());
+        tokenManager = new SpotifyTokenManager(WebClient.create(), apiConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenManager.stop();
+        upstream.close();
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() {
+        upstream.delayTokens(Duration.ofMillis(300));
+
+        List<CompletableFuture<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            callers.add(tokenManager.getAccessToken().toFuture());
+        }
+        // A caller giving up does not cancel the request the others wait for
+        Disposable cancelled = tokenManager.getAccessToken().subscribe();
+        cancelled.dispose();
+
+        for (CompletableFuture<String> caller : callers) {
+            assertThat(caller.join()).isEqualTo("stub-token-1");
+        }
+        assertThat(upstream.getTokenCalls()).isEqualTo(1);
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-1");
+        assertThat(upstream.getTokenCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenIsRefreshedAheadOfExpiryBySkew() throws InterruptedException {
+        upstream.setTokenTtl(2);
+        apiConfig.getSpotify().setTokenRefreshSkew(Duration.ofMillis(500));
+
+        assertThat(refreshDelay()).isBetween(Duration.ofMillis(1500), Duration.ofMillis(1900));
+    }
+
+    @Test
+    void shortLivedTokenIsRefreshedAtHalfLife() throws InterruptedException {
+        // The default skew of five minutes is longer than the token lives
+        upstream.setTokenTtl(2);
+
+        assertThat(refreshDelay()).isBetween(Duration.ofMillis(1000), Duration.ofMillis(1400));
+    }
+
+    @Test
+    void failedRefreshKeepsTheValidToken() throws InterruptedException {
+        upstream.setTokenTtl(2);
+        long start = System.nanoTime();
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-1");
+
+        upstream.failTokens(HttpResponseStatus.SERVICE_UNAVAILABLE);
+        awaitTokenCalls(2);
+
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-1");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+
+        // Once it has expired, callers wait for a new one
+        upstream.failTokens(null);
+        Thread.sleep(Duration.ofSeconds(2).minus(Duration.ofNanos(System.nanoTime() - start)).toMillis() + 100);
+        assertThat(tokenManager.getAccessToken().block()).isNotEqualTo("stub-token-1");
+    }
+
+    @Test
+    void invalidateDiscardsOnlyTheCurrentToken() {
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-1");
+
+        tokenManager.invalidate("some-other-token");
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-1");
+
+        tokenManager.invalidate("stub-token-1");
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-2");
+
+        // A late 401 for the old token leaves its replacement alone
+        tokenManager.invalidate("stub-token-1");
+        assertThat(tokenManager.getAccessToken().block()).isEqualTo("stub-token-2");
+        assertThat(upstream.getTokenCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void stopCancelsScheduledRefreshes() throws InterruptedException {
+        upstream.setTokenTtl(2);
+        tokenManager.getAccessToken().block();
+
+        tokenManager.stop();
+        Thread.sleep(1300);
+
+        assertThat(upstream.getTokenCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void staticTokenIsUsedWithoutClientCredentials() {
+        ApiConfig staticConfig = Payloads.apiConfig();
+        staticConfig.getSpotify().setTokenUrl(upstream.tokenUrl());
+        SpotifyTokenManager staticTokens = new SpotifyTokenManager(WebClient.create(), staticConfig);
+
+        staticTokens.start();
+
+        assertThat(staticTokens.getAccessToken().block()).isEqualTo(staticConfig.getSpotify().getAccessToken());
+        assertThat(upstream.getTokenCalls()).isZero();
+    }
+
+    /**
+     * Obtains a token and measures how long the manager waits before refreshing it.
+     */
+    private Duration refreshDelay() throws InterruptedException {
+        // Measured from before the request, so the delay is never under the refresh point
+        long requested = System.nanoTime();
+        tokenManager.getAccessToken().block();
+        awaitTokenCalls(2);
+        return Duration.ofNanos(System.nanoTime() - requested);
+    }
+
+    private void awaitTokenCalls(long calls) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (upstream.getTokenCalls() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(upstream.getTokenCalls()).isEqualTo(calls);
+    }
+}
@@ -0,0 +1,145 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.SpotifyTrack;
+import com.jamcast.api.perf.Payloads;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackCatalogTest {
+
+    private static final String HAPPY = "pop,indie-pop,summer";
+    private static final String CALM = "ambient,classical,instrumental";
+
+    @Test
+    void poolsGrowPerSeedGenresUpToTheirLimit() {
+        ApiConfig.Catalog config = new ApiConfig.Catalog();
+        config.setMaxTracksPerMood(25);
+        TrackCatalog catalog = catalog(config);
+
+        catalog.harvest(HAPPY, tracks(0, 20));
+        catalog.harvest(HAPPY, tracks(10, 20));
+        catalog.harvest(CALM, tracks(100, 5));
+
+        assertThat(catalog.size(HAPPY)).isEqualTo(25);
+        assertThat(catalog.size(CALM)).isEqualTo(5);
+        assertThat(catalog.size()).isEqualTo(30);
+        // Tracks 0 to 4 were the oldest, and 10 to 19 were refreshed by the second harvest
+        assertThat(ids(catalog.sample(HAPPY, 25, 0)))
+                .containsExactlyInAnyOrderElementsOf(Arrays.asList(ids(tracks(5, 25))));
+    }
+
+    @Test
+    void tracksWithoutIdsAndEmptyHarvestsAreIgnored() {
+        TrackCatalog catalog = catalog(new ApiConfig.Catalog());
+
+        catalog.harvest(HAPPY, new SpotifyTrack[] {track(null), null, track("a")});
+        catalog.harvest(HAPPY, new SpotifyTrack[0]);
+        catalog.harvest(HAPPY, null);
+
+        assertThat(catalog.size(HAPPY)).isEqualTo(1);
+    }
+
+    @Test
+    void samplesAreDistinctAndRespectTheMinimum() {
+        TrackCatalog catalog = catalog(new ApiConfig.Catalog());
+        catalog.harvest(HAPPY, tracks(0, 30));
+
+        for (int i = 0; i < 100; i++) {
+            SpotifyTrack[] sampled = catalog.sample(HAPPY, 20, 20);
+            assertThat(sampled).hasSize(20).doesNotHaveDuplicates();
+        }
+        assertThat(catalog.sample(HAPPY, 50, 20)).hasSize(30).doesNotHaveDuplicates();
+        assertThat(catalog.sample(HAPPY, 20, 31)).isNull();
+        assertThat(catalog.sample(CALM, 20, 0)).isNull();
+        assertThat(catalog.size(CALM)).isZero();
+    }
+
+    @Test
+    void smallPoolsAreToppedUpOneCallAtATimeAndAtMostOncePerInterval() throws InterruptedException {
+        ApiConfig.Catalog config = new ApiConfig.Catalog();
+        config.setMinTracksPerMood(40);
+        config.setTopUpInterval(Duration.ofMillis(200));
+        TrackCatalog catalog = catalog(config);
+        catalog.harvest(HAPPY, tracks(0, 20));
+
+        assertThat(catalog.tryStartTopUp(HAPPY)).isTrue();
+        assertThat(catalog.tryStartTopUp(HAPPY)).isFalse();
+        catalog.finishTopUp(HAPPY);
+        // Finished, but the interval has not passed yet
+        assertThat(catalog.tryStartTopUp(HAPPY)).isFalse();
+        // Pools are throttled independently
+        assertThat(catalog.tryStartTopUp(CALM)).isTrue();
+
+        Thread.sleep(300);
+        assertThat(catalog.tryStartTopUp(HAPPY)).isTrue();
+        catalog.finishTopUp(HAPPY);
+
+        catalog.harvest(HAPPY, tracks(20, 20));
+        Thread.sleep(300);
+        assertThat(catalog.tryStartTopUp(HAPPY)).isFalse();
+    }
+
+    @Test
+    void persistedCatalogIsLoadedOnStartup(@TempDir Path directory) throws Exception {
+        ApiConfig.Catalog config = new ApiConfig.Catalog();
+        config.setPath(directory.resolve("catalog/tracks.json").toString());
+        TrackCatalog catalog = catalog(config);
+        catalog.harvest(HAPPY, tracks(0, 30));
+        catalog.harvest(CALM, tracks(100, 3));
+
+        catalog.persist();
+        TrackCatalog restored = catalog(config);
+        restored.load();
+
+        assertThat(restored.size(HAPPY)).isEqualTo(30);
+        assertThat(restored.size(CALM)).isEqualTo(3);
+        SpotifyTrack track = restored.sample(CALM, 3, 3)[0];
+        assertThat(track.getName()).isEqualTo("Track " + track.getId());
+        assertThat(Files.list(directory.resolve("catalog"))).containsExactly(Path.of(config.getPath()));
+    }
+
+    @Test
+    void unreadableCatalogLeavesTheCatalogEmpty(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("tracks.json");
+        Files.writeString(path, "{\"pop,indie\": [{\"id\": \"a\"");
+        ApiConfig.Catalog config = new ApiConfig.Catalog();
+        config.setPath(path.toString());
+
+        TrackCatalog catalog = catalog(config);
+        catalog.load();
+
+        assertThat(catalog.size()).isZero();
+    }
+
+    private static TrackCatalog catalog(ApiConfig.Catalog config) {
+        ApiConfig apiConfig = Payloads.apiConfig();
+        apiConfig.getSpotify().setCatalog(config);
+        return new TrackCatalog(Payloads.objectMapper(), apiConfig);
+    }
+
+    private static SpotifyTrack[] tracks(int from, int count) {
+        return IntStream.range(from, from + count)
+                .mapToObj(i -> track(String.valueOf(i)))
+                .toArray(SpotifyTrack[]::new);
+    }
+
+    private static SpotifyTrack track(String id) {
+        SpotifyTrack track = new SpotifyTrack();
+        track.setId(id);
+        track.setName("Track " + id);
+        return track;
+    }
+
+    private static String[] ids(SpotifyTrack[] tracks) {
+        return Arrays.stream(tracks).map(SpotifyTrack::getId).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,122 @@
+package com.jamcast.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamcast.api.dto.PlaylistResponse.PlaylistTrack;
+import com.jamcast.api.perf.Payloads;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackStoreTest {
+
+    @Test
+    void storesEachDistinctTrackOnce() {
+        TrackStore store = new TrackStore(100);
+
+        List<PlaylistTrack> first = store.decode(store.encode(playlist(0, 10)));
+        List<PlaylistTrack> second = store.decode(store.encode(playlist(5, 10)));
+
+        assertThat(store.size()).isEqualTo(15);
+        assertThat(second.get(0).getName()).isSameAs(first.get(5).getName());
+        // Track 12 is new, but shares its artist with track 5
+        assertThat(second.get(7).getArtist()).isSameAs(first.get(5).getArtist());
+    }
+
+    @Test
+    void decodedTracksAreCopies() {
+        TrackStore store = new TrackStore(100);
+        TrackStore.EncodedTracks encoded = store.encode(playlist(0, 3));
+
+        store.decode(encoded).get(0).setName("Changed");
+
+        assertThat(store.decode(encoded).get(0).getName()).isEqualTo("Track 0");
+        assertThat(store.decode(encoded)).isUnmodifiable();
+    }
+
+    @Test
+    void jsonReadsBackAsTheTracks() throws Exception {
+        TrackStore store = new TrackStore(100);
+        List<PlaylistTrack> tracks = List.of(
+                new PlaylistTrack("Say \"hi\"", "São Paulo", "https://open.spotify.com/track/1", null),
+                new PlaylistTrack("東京 🎵", null, "", "Album"));
+        TrackStore.EncodedTracks encoded = store.encode(tracks);
+
+        byte[] json = new byte[encoded.jsonLength() + 2];
+        json[0] = '[';
+        assertThat(encoded.writeJson(json, 1)).isEqualTo(json.length - 1);
+        json[json.length - 1] = ']';
+
+        // The encoder escapes characters outside the BMP, so compare the parsed trees
+        ObjectMapper objectMapper = Payloads.objectMapper();
+        assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.valueToTree(tracks));
+        assertThat(store.encode(List.of()).jsonLength()).isZero();
+    }
+
+    @Test
+    void sizeStaysBoundedUnderEndlessDistinctTracks() {
+        TrackStore store = new TrackStore(100);
+
+        for (int start = 0; start < 10_000; start += 20) {
+            store.encode(playlist(start, 20));
+            assertThat(store.size()).isLessThanOrEqualTo(100);
+        }
+    }
+
+    @Test
+    void playlistsEncodedBeforeAGenerationChangeStillDecode() {
+        TrackStore store = new TrackStore(100);
+        TrackStore.EncodedTracks old = store.encode(playlist(0, 20));
+
+        for (int start = 20; start < 1_000; start += 20) {
+            store.encode(playlist(start, 20));
+        }
+
+        assertThat(store.decode(old)).extracting(PlaylistTrack::getName)
+                .containsExactlyElementsOf(playlist(0, 20).stream().map(PlaylistTrack::getName).toList());
+    }
+
+    @Test
+    void fullGenerationIsReplacedAndItsTracksStoredAgain() {
+        TrackStore store = new TrackStore(100);
+        TrackStore.EncodedTracks old = store.encode(playlist(0, 20));
+        assertThat(old.generation()).isZero();
+
+        for (int start = 20; start < 100; start += 20) {
+            store.encode(playlist(start, 20));
+        }
+        assertThat(store.generation()).isZero();
+        assertThat(store.size()).isEqualTo(100);
+
+        // The generation is full, so the store moves on and keeps no track from it
+        TrackStore.EncodedTracks again = store.encode(playlist(0, 20));
+        assertThat(store.generation()).isEqualTo(1);
+        assertThat(again.generation()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(20);
+        assertThat(store.decode(again)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(store.decode(old));
+    }
+
+    @Test
+    void playlistsNeverSpanTwoGenerations() {
+        TrackStore store = new TrackStore(100);
+        store.encode(playlist(0, 90));
+
+        TrackStore.EncodedTracks spanning = store.encode(playlist(90, 20));
+
+        assertThat(spanning.generation()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(20);
+        assertThat(store.decode(spanning)).hasSize(20);
+    }
+
+    private static List<PlaylistTrack> playlist(int start, int count) {
+        List<PlaylistTrack> tracks = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            tracks.add(new PlaylistTrack("Track " + i, "Artist " + (i % 7),
+                    "https://open.spotify.com/track/" + i, "Album " + (i % 5)));
+        }
+        return tracks;
+    }
+}
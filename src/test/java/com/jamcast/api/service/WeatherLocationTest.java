@@ -0,0 +1,44 @@
+package com.jamcast.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeatherLocationTest {
+
+    @Test
+    void citiesAndCellsRoundTrip() {
+        WeatherLocation city = WeatherLocation.city("  New   York ");
+        WeatherLocation cell = WeatherLocation.cell(42.605, -5.603, 5);
+
+        assertThat(city.toString()).isEqualTo("city:new york");
+        assertThat(cell.toString()).isEqualTo("geohash:ezs42");
+        assertThat(WeatherLocation.parse(city.toString())).isEqualTo(city);
+        assertThat(WeatherLocation.parse(cell.toString())).isEqualTo(cell);
+    }
+
+    @Test
+    void cityNamedLikeACellStaysACity() {
+        WeatherLocation city = WeatherLocation.city("geohash:ezs42");
+
+        WeatherLocation parsed = WeatherLocation.parse(city.toString());
+
+        assertThat(parsed.kind()).isEqualTo(WeatherLocation.Kind.CITY);
+        assertThat(parsed).isEqualTo(city).isNotEqualTo(WeatherLocation.cell(42.605, -5.603, 5));
+    }
+
+    @Test
+    void nearbyPositionsShareACell() {
+        assertThat(WeatherLocation.cell(42.584, -5.624, 5)).isEqualTo(WeatherLocation.cell(42.626, -5.582, 5));
+        assertThat(WeatherLocation.cell(42.584, -5.624, 5)).isNotEqualTo(WeatherLocation.cell(42.628, -5.603, 5));
+    }
+
+    @Test
+    void rejectsKeysWithoutAKindOrWithAnInvalidGeohash() {
+        assertThatThrownBy(() -> WeatherLocation.parse("london")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WeatherLocation.parse("geohash:not-a-cell"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> WeatherLocation.parse("geohash:")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
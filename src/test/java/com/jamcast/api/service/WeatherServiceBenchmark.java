@@ -0,0 +1,74 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.dto.WeatherResponse;
+import com.jamcast.api.perf.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU and allocation cost of the weather mapping hot paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherServiceBenchmark {
+
+    private WeatherService weatherService;
+    private WeatherResponse weatherResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        ApiConfig apiConfig = Payloads.apiConfig();
+        weatherService = new WeatherService(WebClient.create(), apiConfig,
+                Payloads.guard("openweathermap", apiConfig.getOpenweathermap().getResilience()),
+                Payloads.sharedCache(apiConfig));
+        weatherResponse = Payloads.objectMapper().readValue(Payloads.load(Payloads.WEATHER), WeatherResponse.class);
+    }
+
+    @Benchmark
+    public String mapWeatherToMood() {
+        return weatherService.mapWeatherToMood(weatherResponse);
+    }
+
+    @Benchmark
+    public String generatePlaylistTitle() {
+        return weatherService.generatePlaylistTitle(weatherResponse, "chicago");
+    }
+
+    @Benchmark
+    public URI buildWeatherUri() {
+        return weatherService.buildWeatherUri(WeatherLocation.city("chicago"));
+    }
+
+    @Benchmark
+    public URI buildWeatherUriForCell() {
+        return weatherService.buildWeatherUri(weatherService.locate(41.8781, -87.6298));
+    }
+
+    @Benchmark
+    public WeatherLocation locate() {
+        return weatherService.locate(41.8781, -87.6298);
+    }
+
+    @Benchmark
+    public String normalizeCity() {
+        return WeatherService.normalizeCity("  New   York ");
+    }
+}
@@ -0,0 +1,99 @@
+package com.jamcast.api.service;
+
+import com.jamcast.api.config.ApiConfig;
+import com.jamcast.api.perf.Payloads;
+import com.jamcast.api.perf.UpstreamStubServer;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk weather refreshes through the group endpoint of {@link UpstreamStubServer}.
+ */
+class WeatherServiceTest {
+
+    private static final UpstreamStubServer upstream = new UpstreamStubServer(Duration.ZERO, 0, 5).start();
+    private static final List<String> CITIES = List.of("London", "Paris", "Oslo");
+
+    private WeatherService weatherService;
+
+    @BeforeEach
+    void setUp() {
+        ApiConfig apiConfig = Payloads.apiConfig();
+        apiConfig.getOpenweathermap().setBaseUrl(upstream.weatherUrl());
+        weatherService = new WeatherService(WebClient.create(), apiConfig,
+                Payloads.guard("openweathermap", apiConfig.getOpenweathermap().getResilience()),
+                Payloads.sharedCache(apiConfig));
+        // Single-city lookups record the city IDs the group endpoint is called with
+        for (String city : CITIES) {
+            weatherService.getWeatherForCity(city).block();
+        }
+    }
+
+    @AfterEach
+    void resetUpstream() {
+        upstream.overrideGroup(null, null);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void knownCitiesAreRefreshedInOneGroupCall() {
+        long weatherCalls = upstream.getWeatherCalls();
+        long groupCalls = upstream.getGroupCalls();
+
+        assertThat(refresh()).isEqualTo(3);
+        assertThat(upstream.getGroupCalls()).isEqualTo(groupCalls + 1);
+        assertThat(upstream.getWeatherCalls()).isEqualTo(weatherCalls);
+    }
+
+    @Test
+    void groupResponseWithoutAListFallsBackToSingleCalls() {
+        upstream.overrideGroup(HttpResponseStatus.OK, "{\"cnt\":0}");
+
+        assertRefreshedOneByOne();
+    }
+
+    @Test
+    void emptyGroupResponseFallsBackToSingleCalls() {
+        upstream.overrideGroup(HttpResponseStatus.OK, "");
+
+        assertRefreshedOneByOne();
+    }
+
+    @Test
+    void failedGroupCallFallsBackToSingleCalls() {
+        upstream.overrideGroup(HttpResponseStatus.BAD_REQUEST, "{\"cod\":\"400\",\"message\":\"bad request\"}");
+
+        assertRefreshedOneByOne();
+    }
+
+    @Test
+    void citiesLeftOutOfTheGroupResponseAreFetchedOneByOne() {
+        upstream.overrideGroup(HttpResponseStatus.OK, "{\"cnt\":0,\"list\":[]}");
+
+        assertRefreshedOneByOne();
+    }
+
+    private void assertRefreshedOneByOne() {
+        long weatherCalls = upstream.getWeatherCalls();
+
+        assertThat(refresh()).isEqualTo(3);
+        assertThat(upstream.getWeatherCalls()).isEqualTo(weatherCalls + 3);
+    }
+
+    private Long refresh() {
+        return weatherService.refreshWeatherForCities(CITIES, 2, Duration.ZERO).block();
+    }
+}
@@ -0,0 +1,69 @@
+package com.jamcast.api.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteExpiryTest {
+
+    private final WriteExpiry<String, String> expiry = new WriteExpiry<>(Duration.ofMinutes(10));
+    private final AsyncCache<String, String> cache = Caffeine.newBuilder().expireAfter(expiry).buildAsync();
+
+    @Test
+    void writesExpireAfterTheTtl() {
+        cache.synchronous().put("london", "rain");
+
+        assertThat(expiresAfter("london")).isGreaterThan(Duration.ofMinutes(9));
+    }
+
+    @Test
+    void loadedValueKeepsItsRemainingLifetime() {
+        cache.get("london", (key, executor) -> {
+            String value = new String("rain");
+            expiry.expireWriteOf(key, value, Duration.ofMinutes(2));
+            return CompletableFuture.completedFuture(value);
+        }).join();
+
+        assertThat(expiresAfter("london")).isLessThanOrEqualTo(Duration.ofMinutes(2))
+                .isGreaterThan(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void valueLoadedAsynchronouslyKeepsItsRemainingLifetime() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+        cache.get("london", (key, executor) -> load);
+
+        String value = new String("rain");
+        expiry.expireWriteOf("london", value, Duration.ofMinutes(2));
+        load.complete(value);
+
+        assertThat(expiresAfter("london")).isLessThanOrEqualTo(Duration.ofMinutes(2))
+                .isGreaterThan(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void lifetimeAppliesToThatValueOnlyAndIsCappedAtTheTtl() {
+        String rain = new String("rain");
+        expiry.expireWriteOf("london", rain, Duration.ofHours(1));
+        cache.synchronous().put("london", rain);
+        assertThat(expiresAfter("london")).isLessThanOrEqualTo(Duration.ofMinutes(10));
+
+        String sun = new String("sun");
+        expiry.expireWriteOf("paris", sun, Duration.ofMinutes(2));
+        cache.synchronous().put("paris", sun);
+        assertThat(expiresAfter("paris")).isLessThanOrEqualTo(Duration.ofMinutes(2));
+        cache.synchronous().put("paris", new String("clouds"));
+        assertThat(expiresAfter("paris")).isGreaterThan(Duration.ofMinutes(9));
+    }
+
+    private Duration expiresAfter(String key) {
+        Policy.VarExpiration<String, String> expiration = cache.synchronous().policy().expireVariably().orElseThrow();
+        return expiration.getExpiresAfter(key).orElseThrow();
+    }
+}